@@ -13,18 +13,47 @@ dependencies {
     testImplementation("junit:junit:4.13")
 }
 
+// JMH benchmarks of the data-flow solvers and facts, see src/jmh.
+// Run them by "gradle jmh", and pass JMH options by -PjmhArgs="...",
+// e.g., -PjmhArgs="SolverBenchmark -p solver=scc".
+val jmh: SourceSet = sourceSets.create("jmh") {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
 application {
     mainClass.set("pascal.taie.Assignment")
 }
 
 tasks.compileJava { options.encoding = "UTF-8" }
 tasks.compileTestJava { options.encoding = "UTF-8" }
+tasks.named<JavaCompile>("compileJmhJava") { options.encoding = "UTF-8" }
 
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
 }
 
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    // the benchmarks load the test resources by paths relative to this project
+    workingDir = projectDir
+    val reportDir = layout.buildDirectory.dir("reports/jmh").get().asFile
+    doFirst { reportDir.mkdirs() }
+    args("-prof", "gc", "-rf", "json", "-rff", reportDir.resolve("results.json").path)
+    (findProperty("jmhArgs") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
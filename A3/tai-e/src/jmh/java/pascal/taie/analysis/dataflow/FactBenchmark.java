@@ -0,0 +1,223 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.IntCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the basic operations of the data-flow
+ * facts, i.e., meet (copying the target first, as the solvers do for
+ * a fresh fact) and transfer of an assignment (copying the IN fact
+ * and updating one variable), for the set facts
+ * ({@link SetFact} vs. {@link IndexedBitSetFact}) and the facts of
+ * constant propagation ({@link MapFact} vs. {@link CPFact} vs.
+ * {@link IntCPFact}). Together with "-prof gc", this also reports
+ * the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FactBenchmark {
+
+    /**
+     * Seed of the facts, fixed for reproducible numbers.
+     */
+    private static final long SEED = 20221016L;
+
+    /**
+     * Number of variables in the domain of the facts.
+     */
+    @Param({"16", "256"})
+    private int size;
+
+    private final ConstantPropagation constProp = new ConstantPropagation(
+            new AnalysisConfig(ConstantPropagation.ID));
+
+    private Var defined;
+
+    private Value definedValue;
+
+    private SetFact<Var> set1, set2;
+
+    private IndexedBitSetFact<Var> bits1, bits2;
+
+    private MapFact<Var, Value> map1, map2;
+
+    private CPFact cp1, cp2;
+
+    private IntCPFact int1, int2;
+
+    @Setup
+    public void setup() {
+        List<Var> vars = new ArrayList<>();
+        for (int i = 0; i < size; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        Random random = new Random(SEED);
+        defined = vars.get(random.nextInt(size));
+        definedValue = Value.makeConstant(42);
+        set1 = new SetFact<>();
+        set2 = new SetFact<>();
+        bits1 = new IndexedBitSetFact<>(vars);
+        bits2 = new IndexedBitSetFact<>(vars);
+        map1 = new MapFact<>(Map.of());
+        map2 = new MapFact<>(Map.of());
+        cp1 = new CPFact();
+        cp2 = new CPFact();
+        int1 = new IntCPFact(vars);
+        int2 = new IntCPFact(vars);
+        // each variable is in (mapped by) each fact with probability 1/2,
+        // and the two facts agree on half of the constants
+        for (Var var : vars) {
+            if (random.nextBoolean()) {
+                set1.add(var);
+                bits1.add(var);
+                put(var, randomValue(random), map1, cp1, int1);
+            }
+            if (random.nextBoolean()) {
+                set2.add(var);
+                bits2.add(var);
+                put(var, randomValue(random), map2, cp2, int2);
+            }
+        }
+    }
+
+    private static Value randomValue(Random random) {
+        return random.nextInt(8) == 0 ? Value.getNAC() :
+                Value.makeConstant(random.nextInt(2));
+    }
+
+    private static void put(Var var, Value value, MapFact<Var, Value> map,
+                            CPFact cp, IntCPFact ints) {
+        map.update(var, value);
+        cp.update(var, value);
+        ints.update(var, value);
+    }
+
+    @Benchmark
+    public SetFact<Var> meetSetFact() {
+        SetFact<Var> target = set1.copy();
+        target.union(set2);
+        return target;
+    }
+
+    @Benchmark
+    public IndexedBitSetFact<Var> meetIndexedBitSetFact() {
+        IndexedBitSetFact<Var> target = bits1.copy();
+        target.union(bits2);
+        return target;
+    }
+
+    /**
+     * Meets the facts in the way of constant propagation
+     * before {@link CPFact} was backed by a persistent map.
+     */
+    @Benchmark
+    public MapFact<Var, Value> meetMapFact() {
+        MapFact<Var, Value> target = map1.copy();
+        map2.forEach((var, value) -> {
+            Value old = target.get(var);
+            target.update(var, old == null ? value :
+                    constProp.meetValue(value, old));
+        });
+        return target;
+    }
+
+    @Benchmark
+    public CPFact meetCPFact() {
+        CPFact target = cp1.copy();
+        constProp.meetInto(cp2, target);
+        return target;
+    }
+
+    @Benchmark
+    public IntCPFact meetIntCPFact() {
+        IntCPFact target = int1.copy();
+        target.meet(int2);
+        return target;
+    }
+
+    @Benchmark
+    public SetFact<Var> transferSetFact() {
+        SetFact<Var> out = set1.copy();
+        out.remove(defined);
+        return out;
+    }
+
+    @Benchmark
+    public IndexedBitSetFact<Var> transferIndexedBitSetFact() {
+        IndexedBitSetFact<Var> out = bits1.copy();
+        out.remove(defined);
+        return out;
+    }
+
+    @Benchmark
+    public MapFact<Var, Value> transferMapFact() {
+        MapFact<Var, Value> out = map1.copy();
+        out.update(defined, definedValue);
+        return out;
+    }
+
+    @Benchmark
+    public CPFact transferCPFact() {
+        CPFact out = cp1.copy();
+        out.update(defined, definedValue);
+        return out;
+    }
+
+    @Benchmark
+    public IntCPFact transferIntCPFact() {
+        IntCPFact out = int1.copy();
+        out.update(defined, definedValue);
+        return out;
+    }
+}
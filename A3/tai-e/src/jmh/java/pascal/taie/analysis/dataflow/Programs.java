@@ -0,0 +1,235 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Provides the programs analyzed by the benchmarks. A program is given
+ * by a string "suite/name", where suite is one of:
+ * <ul>
+ *     <li>"livevar", "constprop" and "deadcode": the test class of given
+ *     name in the resources of the data-flow assignments;</li>
+ *     <li>"synthetic": a generated method of given number of statements,
+ *     e.g., "synthetic/10000".</li>
+ * </ul>
+ * Each IR is given with its CFG (without exceptional edges).
+ */
+final class Programs {
+
+    /**
+     * Directories of the test classes, relative to this project.
+     */
+    private static final String LIVEVAR_DIR = "../../A1/tai-e/src/test/resources/dataflow/livevar";
+
+    private static final String CONSTPROP_DIR = "../../A2/tai-e/src/test/resources/dataflow/constprop";
+
+    private static final String DEADCODE_DIR = "src/test/resources/dataflow/deadcode";
+
+    /**
+     * Seed of the synthetic methods, fixed for reproducible numbers.
+     */
+    private static final long SEED = 20221016L;
+
+    private Programs() {
+    }
+
+    /**
+     * @return the IRs (with CFGs) of given program.
+     */
+    static List<IR> load(String program) {
+        int slash = program.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Invalid program: " + program);
+        }
+        String suite = program.substring(0, slash);
+        String name = program.substring(slash + 1);
+        return switch (suite) {
+            case "livevar" -> loadClass(LIVEVAR_DIR, name);
+            case "constprop" -> loadClass(CONSTPROP_DIR, name);
+            case "deadcode" -> loadClass(DEADCODE_DIR, name);
+            case "synthetic" -> List.of(buildCFG(
+                    new SyntheticMethod(Integer.parseInt(name), SEED).build()));
+            default -> throw new IllegalArgumentException(
+                    "Unknown suite of program: " + program);
+        };
+    }
+
+    private static List<IR> loadClass(String classPath, String className) {
+        Main.buildWorld("-pp", "-cp", classPath, "-m", className);
+        return World.get()
+                .getClassHierarchy()
+                .getClass(className)
+                .getDeclaredMethods()
+                .stream()
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .map(Programs::buildCFG)
+                .toList();
+    }
+
+    private static IR buildCFG(IR ir) {
+        CFGBuilder builder = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false));
+        CFG<Stmt> cfg = builder.analyze(ir);
+        ir.storeResult(CFGBuilder.ID, cfg);
+        return ir;
+    }
+
+    /**
+     * Generates a structured method over int variables, which consists of
+     * straight-line assignments, nested if-else branches and while loops,
+     * so that the solvers need several passes over the loops to converge.
+     */
+    private static class SyntheticMethod {
+
+        private static final int MAX_DEPTH = 4;
+
+        private final int size;
+
+        private final Random random;
+
+        private final List<Var> params = new ArrayList<>();
+
+        private final List<Var> vars = new ArrayList<>();
+
+        private final List<Stmt> stmts = new ArrayList<>();
+
+        private SyntheticMethod(int size, long seed) {
+            this.size = size;
+            this.random = new Random(seed);
+        }
+
+        private IR build() {
+            int nParams = 2;
+            int nVars = Math.max(8, size / 10);
+            for (int i = 0; i < nParams + nVars; ++i) {
+                String name = i < nParams ? "p" + i : "v" + (i - nParams);
+                Var var = new Var(null, name, PrimitiveType.INT, i);
+                vars.add(var);
+                if (i < nParams) {
+                    params.add(var);
+                }
+            }
+            buildRegion(size - 1, 0);
+            stmts.add(new Return());
+            for (int i = 0; i < stmts.size(); ++i) {
+                stmts.get(i).setIndex(i);
+                stmts.get(i).setLineNumber(i);
+            }
+            return new DefaultIR(null, null, params, Set.of(),
+                    vars, stmts, List.of());
+        }
+
+        /**
+         * Appends about given number of statements to the method.
+         */
+        private void buildRegion(int budget, int depth) {
+            while (budget > 0) {
+                int kind = random.nextInt(10);
+                if (kind < 6 || depth >= MAX_DEPTH || budget < 8) {
+                    stmts.add(newAssign());
+                    --budget;
+                } else if (kind < 8) {
+                    // if (cond) goto then; else; goto join; then; join: nop
+                    int inner = budget / 3;
+                    If cond = new If(newCondition());
+                    stmts.add(cond);
+                    buildRegion(inner / 2, depth + 1);
+                    Goto skip = new Goto();
+                    stmts.add(skip);
+                    int then = stmts.size();
+                    buildRegion(inner - inner / 2, depth + 1);
+                    Nop join = new Nop();
+                    stmts.add(join);
+                    cond.setTarget(stmts.get(then));
+                    skip.setTarget(join);
+                    budget -= inner + 3;
+                } else {
+                    // header: if (cond) goto exit; body; goto header; exit: nop
+                    int inner = budget / 3;
+                    If cond = new If(newCondition());
+                    stmts.add(cond);
+                    buildRegion(inner, depth + 1);
+                    Goto back = new Goto();
+                    stmts.add(back);
+                    Nop exit = new Nop();
+                    stmts.add(exit);
+                    cond.setTarget(exit);
+                    back.setTarget(cond);
+                    budget -= inner + 3;
+                }
+            }
+        }
+
+        private Stmt newAssign() {
+            Var lhs = vars.get(random.nextInt(vars.size()));
+            int kind = random.nextInt(3);
+            if (kind == 0) {
+                return new AssignLiteral(lhs, IntLiteral.get(random.nextInt(4)));
+            } else if (kind == 1) {
+                return new Copy(lhs, randomVar());
+            } else {
+                // division is excluded, as its transfer is not monotone
+                // for division by zero in constant propagation
+                ArithmeticExp.Op op = ArithmeticExp.Op.values()[random.nextInt(3)];
+                return new Binary(lhs, new ArithmeticExp(op, randomVar(), randomVar()));
+            }
+        }
+
+        private ConditionExp newCondition() {
+            ConditionExp.Op op = ConditionExp.Op.values()[
+                    random.nextInt(ConditionExp.Op.values().length)];
+            return new ConditionExp(op, randomVar(), randomVar());
+        }
+
+        private Var randomVar() {
+            return vars.get(random.nextInt(vars.size()));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time of solving live variable analysis and constant
+ * propagation on the benchmark programs (see {@link Programs})
+ * with different solvers:
+ * <ul>
+ *     <li>"iterative": round-robin iteration;</li>
+ *     <li>"worklist": FIFO work-list;</li>
+ *     <li>"worklist-rpo": work-list ordered by reverse post-order;</li>
+ *     <li>"scc": work-list per strongly connected component;</li>
+ *     <li>"block": work-list of basic blocks.</li>
+ * </ul>
+ * Together with "-prof gc", this also reports the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4G")
+public class SolverBenchmark {
+
+    @Param({
+            "livevar/BranchLoop",
+            "livevar/Fibonacci",
+            "constprop/BranchConstant",
+            "constprop/SimpleBranch",
+            "deadcode/Loops",
+            "deadcode/DeadAssignment",
+            "synthetic/1000",
+            "synthetic/10000",
+    })
+    private String program;
+
+    @Param({"iterative", "worklist", "worklist-rpo", "scc", "block"})
+    private String solver;
+
+    private List<IR> irs;
+
+    private LiveVariableAnalysis liveVar;
+
+    private ConstantPropagation constProp;
+
+    @Setup
+    public void setup() {
+        irs = Programs.load(program);
+        liveVar = new LiveVariableAnalysis(
+                newConfig(LiveVariableAnalysis.ID, "strongly", false));
+        constProp = new ConstantPropagation(
+                newConfig(ConstantPropagation.ID, "edge-refine", false));
+    }
+
+    private AnalysisConfig newConfig(String id, String key, Object value) {
+        return switch (solver) {
+            case "iterative", "worklist", "scc", "block" -> new AnalysisConfig(
+                    id, key, value, "solver", solver);
+            case "worklist-rpo" -> new AnalysisConfig(
+                    id, key, value, "solver", "worklist", "worklist", "rpo");
+            default -> throw new IllegalArgumentException(
+                    "Unknown solver: " + solver);
+        };
+    }
+
+    @Benchmark
+    public void liveVariables(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(liveVar.analyze(ir));
+        }
+    }
+
+    @Benchmark
+    public void constantPropagation(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(constProp.analyze(ir));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.BitVectorDataflowAnalysis;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Creates and executes analyses based on given analysis configurations.
+ * <p>
+ * Method (class) analyses analyze each method (class) in scope
+ * independently, thus they run in parallel, and the result for each
+ * method (class) is stored in its {@link IR} ({@link JClass}).
+ * The degree of parallelism is given by option "threads" of the analysis:
+ * <ul>
+ *     <li>0 (default): run on the common fork-join pool;</li>
+ *     <li>1: run sequentially in the calling thread;</li>
+ *     <li>n &gt; 1: run on a dedicated fork-join pool of n threads.</li>
+ * </ul>
+ * The results do not depend on the degree of parallelism.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    public void execute(List<AnalysisConfig> analysisConfigs) {
+        analysisConfigs.forEach(config ->
+                Timer.runAndCount(() -> runAnalysis(config), config.getId()));
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            Constructor<?> ctor = clazz.getConstructor(AnalysisConfig.class);
+            Object analysis = ctor.newInstance(config);
+            if (analysis instanceof ProgramAnalysis pa) {
+                runProgramAnalysis(pa);
+            } else if (analysis instanceof ClassAnalysis ca) {
+                runClassAnalysis(ca);
+            } else if (analysis instanceof MethodAnalysis ma) {
+                runMethodAnalysis(ma);
+            } else {
+                logger.warn(clazz + " is not an analysis");
+            }
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        forEach(getClassScope(), analysis.getOptions(), c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get()
+                        .getClassHierarchy()
+                        .applicationClasses()
+                        .toList();
+                case "all" -> World.get()
+                        .getClassHierarchy()
+                        .allClasses()
+                        .toList();
+                case "reachable" -> throw unsupportedReachableScope();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        forEach(getMethodScope(), analysis.getOptions(), m -> {
+            IR ir = m.getIR();
+            Object result = analysis.analyze(ir);
+            if (result != null) {
+                ir.storeResult(analysis.getId(), result);
+            }
+        });
+        dumpSolverStats(analysis);
+    }
+
+    /**
+     * Dumps the solver statistics of given analysis if they are enabled.
+     */
+    private static void dumpSolverStats(MethodAnalysis analysis) {
+        SolverStats stats = null;
+        if (analysis instanceof AbstractDataflowAnalysis<?, ?> dataflow) {
+            stats = dataflow.getSolverStats();
+        } else if (analysis instanceof BitVectorDataflowAnalysis<?, ?> bitVector) {
+            stats = bitVector.getSolverStats();
+        }
+        if (stats != null) {
+            stats.dump();
+        }
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                case "reachable" -> throw unsupportedReachableScope();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * Scope "reachable" needs the call graph, which is not built
+     * by the analyses of this assignment.
+     */
+    private static ConfigException unsupportedReachableScope() {
+        return new ConfigException("Scope option 'reachable' requires " +
+                "a call graph, which is not available in this assignment");
+    }
+
+    /**
+     * Performs given action for each element of given scope, with the
+     * degree of parallelism given by option "threads" of the analysis.
+     */
+    private static <T> void forEach(List<T> scope, AnalysisOptions options,
+                                    Consumer<T> action) {
+        int threads = options.get("threads") != null ? options.getInt("threads") : 0;
+        if (threads < 0) {
+            throw new ConfigException("Invalid number of threads: " + threads);
+        } else if (threads == 0) {
+            scope.parallelStream().forEach(action);
+        } else if (threads == 1) {
+            scope.forEach(action);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // a parallel stream started inside a fork-join pool
+                // runs its tasks on that pool
+                pool.submit(() -> scope.parallelStream().forEach(action)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AnalysisException("Interrupted while running analysis", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new AnalysisException(e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -159,8 +159,11 @@ public class ResultProcessor extends ProgramAnalysis {
                 .map(JClass::getDeclaredMethods)
                 .flatMap(Collection::stream)
                 .filter(m -> !m.isAbstract() && !m.isNative())
-                .sorted(Comparator.comparing(m ->
-                        m.getIR().getStmt(0).getLineNumber()));
+                // break ties by signature, so that the output does not
+                // depend on the order in which the methods are stored
+                .sorted(Comparator.comparing((JMethod m) ->
+                                m.getIR().getStmt(0).getLineNumber())
+                        .thenComparing(JMethod::toString));
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
@@ -25,21 +25,27 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 
+import java.util.Collection;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
+    private final SolverStats stats;
+
     private final Solver<Node, Fact> solver;
 
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        stats = SolverStats.of(getId(), getOptions());
+        solver = Solver.makeSolver(this, getOptions(), stats);
     }
 
     @Override
@@ -48,6 +54,42 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
         return solver.solve(cfg);
     }
 
+    /**
+     * Re-analyzes given IR incrementally after some of its nodes changed.
+     * The result is the same as {@link #analyze(IR)} on the changed IR.
+     * Some configurations cannot re-analyze incrementally, and analyze the
+     * changed IR from scratch instead, i.e., constant propagation in modes
+     * other than "dense" or with "prune-dead", and the block solver.
+     * They return a new result and leave {@code previous} unchanged,
+     * thus the clients must use the returned result.
+     *
+     * @param previous the result of the IR before the changes,
+     *                 which is updated in place by incremental solvers
+     * @param changed  the changed nodes
+     * @return the result of the changed IR
+     * @see Solver#solve(CFG, DataflowResult, Collection)
+     */
+    public DataflowResult<Node, Fact> analyze(IR ir,
+            DataflowResult<Node, Fact> previous, Collection<Node> changed) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        return solver.solve(cfg, previous, changed);
+    }
+
+    /**
+     * @return the solver statistics of this analysis,
+     * or null if the statistics are disabled.
+     */
+    public SolverStats getSolverStats() {
+        return stats;
+    }
+
+    /**
+     * @return the solver of this analysis.
+     */
+    public Solver<Node, Fact> getSolver() {
+        return solver;
+    }
+
     /**
      * By default, a data-flow analysis does not have edge transfer, i.e.,
      * does not need to perform transfer for any edges.
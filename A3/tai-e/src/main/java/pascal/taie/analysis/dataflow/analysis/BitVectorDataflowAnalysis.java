@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.util.Indexable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Base class for gen/kill data-flow analyses whose facts are sets of
+ * {@link Indexable} elements, e.g., variables or definitions.
+ * <p>
+ * The gen and kill sets of all nodes are computed once per CFG, and
+ * the facts are represented by {@link IndexedBitSetFact}, thus meet
+ * (union) and transfer ({@code gen U (fact - kill)}) are performed
+ * as word-wide bit operations.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <E>    type of elements in data-flow facts
+ * @see GenKillAnalysis
+ */
+public abstract class BitVectorDataflowAnalysis<Node, E extends Indexable>
+        extends MethodAnalysis {
+
+    private final SolverStats stats;
+
+    protected BitVectorDataflowAnalysis(AnalysisConfig config) {
+        super(config);
+        stats = SolverStats.of(getId(), getOptions());
+    }
+
+    @Override
+    public DataflowResult<Node, IndexedBitSetFact<E>> analyze(IR ir) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        GenKillAnalysis<Node, E> analysis = newAnalysis(cfg);
+        return Solver.makeSolver(analysis, getOptions(), stats).solve(cfg);
+    }
+
+    /**
+     * Re-analyzes given IR incrementally after some of its nodes changed.
+     * The gen and kill sets are recomputed for the changed IR, whose domain
+     * must be the same as the domain before the changes. The block solver
+     * re-analyzes the IR from scratch, and returns a new result without
+     * updating {@code previous}, thus the clients must use the returned result.
+     *
+     * @param previous the result of the IR before the changes,
+     *                 which is updated in place by incremental solvers
+     * @param changed  the changed nodes
+     * @return the result of the changed IR
+     * @see Solver#solve(CFG, DataflowResult, Collection)
+     */
+    public DataflowResult<Node, IndexedBitSetFact<E>> analyze(IR ir,
+            DataflowResult<Node, IndexedBitSetFact<E>> previous,
+            Collection<Node> changed) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        GenKillAnalysis<Node, E> analysis = newAnalysis(cfg);
+        return Solver.makeSolver(analysis, getOptions(), stats)
+                .solve(cfg, previous, changed);
+    }
+
+    /**
+     * @return the gen/kill analysis of this analysis on given CFG,
+     * which can be solved together with other analyses,
+     * see {@link ProductAnalysis}.
+     */
+    public GenKillAnalysis<Node, E> newAnalysis(CFG<Node> cfg) {
+        GenKillAnalysis<Node, E> analysis =
+                new GenKillAnalysis<>(isForward(), getDomain(cfg));
+        computeGenKill(cfg, analysis);
+        return analysis;
+    }
+
+    /**
+     * @return the solver statistics of this analysis,
+     * or null if the statistics are disabled.
+     */
+    public SolverStats getSolverStats() {
+        return stats;
+    }
+
+    /**
+     * @return true if this analysis is forward, otherwise false.
+     */
+    public abstract boolean isForward();
+
+    /**
+     * @return the elements that may appear in the data-flow facts of
+     * given CFG. The index of each element must be the same as its
+     * position in the resulting list.
+     */
+    protected abstract List<E> getDomain(CFG<Node> cfg);
+
+    /**
+     * Computes gen and kill sets for the nodes of given CFG.
+     */
+    protected abstract void computeGenKill(CFG<Node> cfg, GenKillAnalysis<Node, E> genKill);
+}
@@ -0,0 +1,486 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.*;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.*;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Simplifies the IR of a method by the result of {@link ConstantPropagation}:
+ * <ul>
+ *     <li>binary expressions with constant values are folded,
+ *     i.e., {@code x = a op b} becomes {@code x = c};</li>
+ *     <li>branches with constant conditions are decided, i.e., an
+ *     {@link If} becomes a {@link Goto} to its target if the condition
+ *     is always true, or a {@link Nop} if it is always false, and a
+ *     {@link SwitchStmt} becomes a {@link Goto} to the selected target;</li>
+ *     <li>statements unreachable from the entry (taking the decided
+ *     branches into account) are dropped.</li>
+ * </ul>
+ * The original IR is unchanged. The simplified IR consists of new
+ * statements (and exception entries), re-indexed from 0, on copies of the
+ * variables of the original IR (with the same names and indexes), thus the
+ * relevant statements of the variables (e.g., {@link Var#getInvokes()})
+ * of each IR are the statements of that IR. The result is a {@link FoldedIR},
+ * which maps the statements of the two IRs to each other.
+ */
+public class ConstantFolding extends MethodAnalysis {
+
+    public static final String ID = "constfold";
+
+    public ConstantFolding(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public FoldedIR analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, CPFact> constants = ir.getResult(ConstantPropagation.ID);
+        Map<Stmt, Value> conditions =
+                DeadCodeDetection.evaluateConditions(ir, constants);
+        Set<Stmt> reachable = DeadCodeDetection.findReachableCode(cfg, conditions);
+        Copier copier = new Copier(ir.getVars());
+        // create the new statements
+        Map<Stmt, Stmt> newStmts = Maps.newMap();
+        List<Stmt> stmts = new ArrayList<>();
+        List<Integer> originalIndexes = new ArrayList<>();
+        for (Stmt stmt : ir) {
+            if (reachable.contains(stmt)) {
+                Stmt newStmt = fold(stmt, constants.getInFact(stmt),
+                        conditions.get(stmt), copier);
+                newStmt.setIndex(stmts.size());
+                newStmt.setLineNumber(stmt.getLineNumber());
+                newStmts.put(stmt, newStmt);
+                stmts.add(newStmt);
+                originalIndexes.add(stmt.getIndex());
+            }
+        }
+        // set the jump targets of the new statements, all targets
+        // of the feasible branches are reachable and thus kept
+        for (Stmt stmt : ir) {
+            Stmt newStmt = newStmts.get(stmt);
+            if (newStmt != null) {
+                setTargets(stmt, newStmt, conditions.get(stmt), newStmts);
+            }
+        }
+        Set<Var> returnVars = new LinkedHashSet<>();
+        ir.getReturnVars().forEach(v -> returnVars.add(copier.var(v)));
+        IR folded = new DefaultIR(ir.getMethod(),
+                ir.getThis() != null ? copier.var(ir.getThis()) : null,
+                copier.vars(ir.getParams()), returnVars,
+                copier.vars(ir.getVars()), stmts,
+                foldExceptionEntries(ir, newStmts));
+        return new FoldedIR(ir, folded, originalIndexes.stream()
+                .mapToInt(Integer::intValue)
+                .toArray());
+    }
+
+    /**
+     * @return the new statement for given statement, with its expression
+     * or condition folded by given IN fact and condition value.
+     */
+    private static Stmt fold(Stmt stmt, CPFact in, Value condition,
+                             Copier copier) {
+        if (stmt instanceof Binary binary &&
+                ConstantPropagation.canHoldInt(binary.getLValue())) {
+            Value value = ConstantPropagation.evaluate(binary.getRValue(), in);
+            if (value.isConstant()) {
+                return new AssignLiteral(copier.var(binary.getLValue()),
+                        IntLiteral.get(value.getConstant()));
+            }
+        } else if (stmt instanceof If && condition.isConstant()) {
+            return condition.getConstant() == 1 ? new Goto() : new Nop();
+        } else if (stmt instanceof SwitchStmt && condition.isConstant()) {
+            return new Goto();
+        }
+        return stmt.accept(copier);
+    }
+
+    /**
+     * Sets the jump targets of given new statement,
+     * which is created for given original statement.
+     */
+    private static void setTargets(Stmt stmt, Stmt newStmt, Value condition,
+                                   Map<Stmt, Stmt> newStmts) {
+        if (newStmt instanceof Goto newGoto) {
+            Stmt target;
+            if (stmt instanceof If ifStmt) {
+                target = ifStmt.getTarget();
+            } else if (stmt instanceof SwitchStmt switchStmt) {
+                target = switchStmt.getDefaultTarget();
+                for (Pair<Integer, Stmt> caseTarget : switchStmt.getCaseTargets()) {
+                    if (caseTarget.first() == condition.getConstant()) {
+                        target = caseTarget.second();
+                        break;
+                    }
+                }
+            } else {
+                target = ((Goto) stmt).getTarget();
+            }
+            newGoto.setTarget(newStmts.get(target));
+        } else if (newStmt instanceof If newIf) {
+            newIf.setTarget(newStmts.get(((If) stmt).getTarget()));
+        } else if (newStmt instanceof SwitchStmt newSwitch) {
+            SwitchStmt switchStmt = (SwitchStmt) stmt;
+            newSwitch.setTargets(switchStmt.getTargets()
+                    .stream()
+                    .map(newStmts::get)
+                    .toList());
+            newSwitch.setDefaultTarget(newStmts.get(switchStmt.getDefaultTarget()));
+        }
+    }
+
+    /**
+     * @return the exception entries of the folded IR, i.e., the entries
+     * of given IR whose handlers are kept, with their ranges shrunk
+     * to the kept statements. The entries whose ranges become empty
+     * are dropped.
+     */
+    private static List<ExceptionEntry> foldExceptionEntries(
+            IR ir, Map<Stmt, Stmt> newStmts) {
+        List<ExceptionEntry> entries = new ArrayList<>();
+        for (ExceptionEntry entry : ir.getExceptionEntries()) {
+            Catch handler = (Catch) newStmts.get(entry.handler());
+            if (handler == null) {
+                continue;
+            }
+            Stmt start = nextKeptStmt(ir, entry.start().getIndex(), newStmts);
+            Stmt end = nextKeptStmt(ir, entry.end().getIndex(), newStmts);
+            if (end == null && !newStmts.isEmpty()) {
+                // no statement is kept after the range, thus clamps
+                // the (exclusive) end to the last kept statement
+                end = newStmts.values()
+                        .stream()
+                        .max(Comparator.comparingInt(Stmt::getIndex))
+                        .get();
+            }
+            if (start != null && end != null && start != end) {
+                entries.add(new ExceptionEntry(start, end, handler,
+                        entry.catchType()));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return the new statement of the first kept statement at or after
+     * given index, or null if there is no such statement.
+     */
+    private static Stmt nextKeptStmt(IR ir, int index, Map<Stmt, Stmt> newStmts) {
+        for (int i = index; i < ir.getStmts().size(); ++i) {
+            Stmt newStmt = newStmts.get(ir.getStmt(i));
+            if (newStmt != null) {
+                return newStmt;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a copy of each statement on the copies of its variables,
+     * whose jump targets (if any) are set later by {@link #setTargets}.
+     * The statements which are relevant to their variables (e.g.,
+     * {@link Invoke}) register themselves to the copies, so the original
+     * variables are unchanged.
+     */
+    private static class Copier implements StmtVisitor<Stmt> {
+
+        private final Map<Var, Var> vars = Maps.newMap();
+
+        private Copier(List<Var> originalVars) {
+            for (Var v : originalVars) {
+                vars.put(v, new Var(v.getMethod(), v.getName(), v.getType(),
+                        v.getIndex(), v.isTempConst() ? v.getTempConstValue() : null));
+            }
+        }
+
+        private Var var(Var v) {
+            return vars.get(v);
+        }
+
+        private List<Var> vars(List<Var> vs) {
+            return vs.stream().map(vars::get).toList();
+        }
+
+        /**
+         * @return the copy of given expression on the copies of its
+         * variables, or the expression itself if it has no variables.
+         */
+        @SuppressWarnings("unchecked")
+        private <E extends Exp> E exp(E exp) {
+            return (E) exp.accept(expCopier);
+        }
+
+        private final ExpVisitor<Exp> expCopier = new ExpVisitor<>() {
+
+            @Override
+            public Exp visit(Var var) {
+                return var(var);
+            }
+
+            @Override
+            public Exp visit(InstanceFieldAccess access) {
+                return new InstanceFieldAccess(access.getFieldRef(),
+                        var(access.getBase()));
+            }
+
+            @Override
+            public Exp visit(ArrayAccess access) {
+                return new ArrayAccess(var(access.getBase()),
+                        var(access.getIndex()));
+            }
+
+            @Override
+            public Exp visit(NewArray newArray) {
+                return new NewArray(newArray.getType(), var(newArray.getLength()));
+            }
+
+            @Override
+            public Exp visit(NewMultiArray newArray) {
+                return new NewMultiArray(newArray.getType(),
+                        vars(newArray.getLengths()));
+            }
+
+            @Override
+            public Exp visit(InvokeInterface invoke) {
+                return new InvokeInterface(invoke.getMethodRef(),
+                        var(invoke.getBase()), vars(invoke.getArgs()));
+            }
+
+            @Override
+            public Exp visit(InvokeSpecial invoke) {
+                return new InvokeSpecial(invoke.getMethodRef(),
+                        var(invoke.getBase()), vars(invoke.getArgs()));
+            }
+
+            @Override
+            public Exp visit(InvokeStatic invoke) {
+                return new InvokeStatic(invoke.getMethodRef(),
+                        vars(invoke.getArgs()));
+            }
+
+            @Override
+            public Exp visit(InvokeVirtual invoke) {
+                return new InvokeVirtual(invoke.getMethodRef(),
+                        var(invoke.getBase()), vars(invoke.getArgs()));
+            }
+
+            @Override
+            public Exp visit(InvokeDynamic invoke) {
+                return new InvokeDynamic(invoke.getBootstrapMethodRef(),
+                        invoke.getMethodName(), invoke.getMethodType(),
+                        invoke.getBootstrapArgs(), vars(invoke.getArgs()));
+            }
+
+            @Override
+            public Exp visit(ArrayLengthExp exp) {
+                return new ArrayLengthExp(var(exp.getBase()));
+            }
+
+            @Override
+            public Exp visit(NegExp exp) {
+                return new NegExp(var(exp.getValue()));
+            }
+
+            @Override
+            public Exp visit(ArithmeticExp exp) {
+                return new ArithmeticExp(exp.getOperator(),
+                        var(exp.getOperand1()), var(exp.getOperand2()));
+            }
+
+            @Override
+            public Exp visit(BitwiseExp exp) {
+                return new BitwiseExp(exp.getOperator(),
+                        var(exp.getOperand1()), var(exp.getOperand2()));
+            }
+
+            @Override
+            public Exp visit(ComparisonExp exp) {
+                return new ComparisonExp(exp.getOperator(),
+                        var(exp.getOperand1()), var(exp.getOperand2()));
+            }
+
+            @Override
+            public Exp visit(ConditionExp exp) {
+                return new ConditionExp(exp.getOperator(),
+                        var(exp.getOperand1()), var(exp.getOperand2()));
+            }
+
+            @Override
+            public Exp visit(ShiftExp exp) {
+                return new ShiftExp(exp.getOperator(),
+                        var(exp.getOperand1()), var(exp.getOperand2()));
+            }
+
+            @Override
+            public Exp visit(InstanceOfExp exp) {
+                return new InstanceOfExp(var(exp.getValue()),
+                        exp.getCheckedType());
+            }
+
+            @Override
+            public Exp visit(CastExp exp) {
+                return new CastExp(var(exp.getValue()), exp.getCastType());
+            }
+
+            /**
+             * Literals, static field accesses and new instances
+             * have no variables.
+             */
+            @Override
+            public Exp visitDefault(Exp exp) {
+                return exp;
+            }
+        };
+
+        @Override
+        public Stmt visit(New stmt) {
+            return new New(stmt.getContainer(), var(stmt.getLValue()),
+                    exp(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(AssignLiteral stmt) {
+            return new AssignLiteral(var(stmt.getLValue()), stmt.getRValue());
+        }
+
+        @Override
+        public Stmt visit(Copy stmt) {
+            return new Copy(var(stmt.getLValue()), var(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(LoadArray stmt) {
+            return new LoadArray(var(stmt.getLValue()), exp(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(StoreArray stmt) {
+            return new StoreArray(exp(stmt.getLValue()), var(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(LoadField stmt) {
+            return new LoadField(var(stmt.getLValue()), exp(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(StoreField stmt) {
+            return new StoreField(exp(stmt.getLValue()), var(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(Binary stmt) {
+            return new Binary(var(stmt.getLValue()), exp(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(Unary stmt) {
+            return new Unary(var(stmt.getLValue()), exp(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(InstanceOf stmt) {
+            return new InstanceOf(var(stmt.getLValue()), exp(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(Cast stmt) {
+            return new Cast(var(stmt.getLValue()), exp(stmt.getRValue()));
+        }
+
+        @Override
+        public Stmt visit(Goto stmt) {
+            return new Goto();
+        }
+
+        @Override
+        public Stmt visit(If stmt) {
+            return new If(exp(stmt.getCondition()));
+        }
+
+        @Override
+        public Stmt visit(TableSwitch stmt) {
+            return new TableSwitch(var(stmt.getVar()),
+                    stmt.getLowIndex(), stmt.getHighIndex());
+        }
+
+        @Override
+        public Stmt visit(LookupSwitch stmt) {
+            return new LookupSwitch(var(stmt.getVar()), stmt.getCaseValues());
+        }
+
+        @Override
+        public Stmt visit(Invoke stmt) {
+            return new Invoke(stmt.getContainer(), exp(stmt.getInvokeExp()),
+                    stmt.getResult() != null ? var(stmt.getResult()) : null);
+        }
+
+        @Override
+        public Stmt visit(Return stmt) {
+            return stmt.getValue() != null ?
+                    new Return(var(stmt.getValue())) : new Return();
+        }
+
+        @Override
+        public Stmt visit(Throw stmt) {
+            return new Throw(var(stmt.getExceptionRef()));
+        }
+
+        @Override
+        public Stmt visit(Catch stmt) {
+            return new Catch(var(stmt.getExceptionRef()));
+        }
+
+        @Override
+        public Stmt visit(Monitor stmt) {
+            return new Monitor(stmt.isEnter() ?
+                    Monitor.Op.ENTER : Monitor.Op.EXIT, var(stmt.getObjectRef()));
+        }
+
+        @Override
+        public Stmt visit(Nop stmt) {
+            return new Nop();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the data-flow analyses given by option "analyses" together,
+ * i.e., solves their {@link ProductAnalysis} with one traversal of the CFG,
+ * and stores the result of each analysis in the IR by the ID of the
+ * analysis, as if the analyses were run one by one. The supported analyses
+ * are {@link ConstantPropagation} (in the dense mode without pruning),
+ * {@link ReachingDefinitionAnalysis} and {@link LiveVariableAnalysis},
+ * with their default options, and they must have the same direction.
+ * Options "solver" and "worklist" of this analysis are given to the solver
+ * of the product.
+ */
+public class DataflowProduct extends MethodAnalysis {
+
+    public static final String ID = "product";
+
+    private final List<String> ids;
+
+    private final ConstantPropagation constProp;
+
+    private final ReachingDefinitionAnalysis reachDef;
+
+    private final LiveVariableAnalysis liveVar;
+
+    @SuppressWarnings("unchecked")
+    public DataflowProduct(AnalysisConfig config) {
+        super(config);
+        List<String> analyses = (List<String>) getOptions().get("analyses");
+        ids = analyses != null ? List.copyOf(analyses) :
+                List.of(ConstantPropagation.ID, ReachingDefinitionAnalysis.ID);
+        if (ids.isEmpty()) {
+            throw new ConfigException("No analyses for " + ID);
+        }
+        for (String id : ids) {
+            if (!id.equals(ConstantPropagation.ID) &&
+                    !id.equals(ReachingDefinitionAnalysis.ID) &&
+                    !id.equals(LiveVariableAnalysis.ID)) {
+                throw new ConfigException(
+                        "Unsupported analysis of " + ID + ": " + id);
+            }
+        }
+        if (ids.contains(LiveVariableAnalysis.ID) && ids.size() > 1) {
+            // live variable analysis is the only backward one
+            throw new ConfigException("Product of forward and backward analyses: "
+                    + ids + " of " + ID);
+        }
+        constProp = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID));
+        reachDef = new ReachingDefinitionAnalysis(
+                new AnalysisConfig(ReachingDefinitionAnalysis.ID));
+        liveVar = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID));
+    }
+
+    /**
+     * @return the result of the product, whose facts are
+     * the {@link ProductFact}s of the facts of the analyses
+     * in the order of option "analyses".
+     */
+    @Override
+    public DataflowResult<Stmt, ProductFact> analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        List<DataflowAnalysis<Stmt, ?>> components = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            components.add(switch (id) {
+                case ConstantPropagation.ID -> constProp;
+                case ReachingDefinitionAnalysis.ID -> reachDef.newAnalysis(cfg);
+                default -> liveVar.newAnalysis(cfg);
+            });
+        }
+        ProductAnalysis<Stmt> product = new ProductAnalysis<>(components);
+        DataflowResult<Stmt, ProductFact> result =
+                Solver.makeSolver(product, getOptions()).solve(cfg);
+        for (int i = 0; i < ids.size(); ++i) {
+            ir.storeResult(ids.get(i), product.project(result, components.get(i)));
+        }
+        return result;
+    }
+}
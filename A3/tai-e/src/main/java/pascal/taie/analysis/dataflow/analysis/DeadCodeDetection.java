@@ -25,40 +25,183 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SCCP;
+import pascal.taie.analysis.dataflow.analysis.constprop.SCCPResult;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
-import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.*;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
 import java.util.*;
+import java.util.function.BiPredicate;
 
+/**
+ * Detects dead code, i.e., unreachable code and dead assignments,
+ * by the results of constant propagation and live variable analysis.
+ * The engine is given by option "engine":
+ * <ul>
+ *     <li>"results" (default): uses the results of {@link ConstantPropagation}
+ *     and {@link LiveVariableAnalysis} stored in the IR, which are computed
+ *     by the analyses required by this analysis;</li>
+ *     <li>"unstored": runs the two analyses on each IR by itself, one after
+ *     another, and keeps only what dead code detection needs from their
+ *     results, i.e., the values of branch conditions and the assignments
+ *     to dead variables. The results are neither stored in the IR nor
+ *     referenced afterwards, thus at most one full result per method is
+ *     alive at a time (besides the CFG). The analyses do not share their
+ *     traversals. Options "solver", "worklist", "intern", "mode" and
+ *     "prune-dead" of this analysis are given to the two analyses.</li>
+ *     <li>"sccp": uses the reachable statements found by {@link SCCP},
+ *     which does not propagate facts into unreachable branches and thus
+ *     may find more unreachable code, and the result of
+ *     {@link LiveVariableAnalysis} stored in the IR.</li>
+ *     <li>"demand": uses the result of {@link ConstantPropagation} stored
+ *     in the IR, and answers the liveness of the assigned variables by
+ *     {@link LiveVariableQuery}, which falls back to running
+ *     {@link LiveVariableAnalysis} on the IR after the number of queries
+ *     given by option "max-live-queries" (default 32).</li>
+ * </ul>
+ */
 public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    private static final int DEFAULT_MAX_LIVE_QUERIES = 32;
+
+    /**
+     * Options of this analysis which are given to the analyses run by
+     * the unstored and demand engines. The other options (e.g., stats and
+     * engine) are for this analysis only.
+     */
+    private static final List<String> FORWARDED_OPTIONS = List.of(
+            "solver", "worklist", "intern", "mode", "prune-dead");
+
+    private final String engine;
+
+    /**
+     * Analyses run by the unstored engine (and live variable analysis run by
+     * the demand engine), or null for the other engines.
+     */
+    private final ConstantPropagation constProp;
+
+    private final LiveVariableAnalysis liveVar;
+
+    private final int maxLiveQueries;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        String engine = getOptions().getString("engine");
+        this.engine = engine != null ? engine : "results";
+        switch (this.engine) {
+            case "results", "sccp" -> {
+                constProp = null;
+                liveVar = null;
+            }
+            case "unstored" -> {
+                constProp = new ConstantPropagation(newConfig(
+                        ConstantPropagation.class, ConstantPropagation.ID));
+                liveVar = new LiveVariableAnalysis(newConfig(
+                        LiveVariableAnalysis.class, LiveVariableAnalysis.ID));
+            }
+            case "demand" -> {
+                constProp = null;
+                liveVar = new LiveVariableAnalysis(newConfig(
+                        LiveVariableAnalysis.class, LiveVariableAnalysis.ID));
+            }
+            default -> throw new ConfigException(
+                    "Unknown engine of " + ID + ": " + this.engine);
+        }
+        maxLiveQueries = getOptions().get("max-live-queries") != null ?
+                getOptions().getInt("max-live-queries") :
+                DEFAULT_MAX_LIVE_QUERIES;
+    }
+
+    private AnalysisConfig newConfig(Class<?> analysisClass, String id) {
+        Map<String, Object> options = Maps.newMap();
+        for (String key : FORWARDED_OPTIONS) {
+            Object value = getOptions().get(key);
+            if (value != null) {
+                options.put(key, value);
+            }
+        }
+        return new AnalysisConfig(null, analysisClass.getName(), id,
+                List.of(), new AnalysisOptions(options));
     }
 
     @Override
     public Set<Stmt> analyze(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
-        // obtain result of constant propagation
-        DataflowResult<Stmt, CPFact> constants =
-                ir.getResult(ConstantPropagation.ID);
-        // obtain result of live variable analysis
-        DataflowResult<Stmt, SetFact<Var>> liveVars =
-                ir.getResult(LiveVariableAnalysis.ID);
+        Set<Stmt> reachableCode;
+        Set<Stmt> deadAssigns;
+        switch (engine) {
+            case "unstored" -> {
+                // each result is dropped as soon as the needed facts are taken
+                reachableCode = findReachableCode(cfg,
+                        evaluateConditions(ir, constProp.analyze(ir)));
+                deadAssigns = findDeadAssignments(ir, liveVar.analyze(ir));
+            }
+            case "demand" -> {
+                reachableCode = findReachableCode(cfg, evaluateConditions(
+                        ir, ir.getResult(ConstantPropagation.ID)));
+                LiveVariableQuery liveVars = new LiveVariableQuery(
+                        cfg, () -> liveVar.analyze(ir), maxLiveQueries);
+                deadAssigns = findDeadAssignments(ir, liveVars::isLiveAfter);
+            }
+            case "sccp" -> {
+                SCCPResult sccp = ir.getResult(SCCP.ID);
+                reachableCode = Sets.newSet(cfg.getNumberOfNodes());
+                for (Stmt stmt : cfg) {
+                    if (sccp.isReachable(stmt)) {
+                        reachableCode.add(stmt);
+                    }
+                }
+                DataflowResult<Stmt, IndexedBitSetFact<Var>> liveVars =
+                        ir.getResult(LiveVariableAnalysis.ID);
+                deadAssigns = findDeadAssignments(ir, liveVars);
+            }
+            default -> {
+                // obtain result of constant propagation
+                DataflowResult<Stmt, CPFact> constants =
+                        ir.getResult(ConstantPropagation.ID);
+                // obtain result of live variable analysis
+                DataflowResult<Stmt, IndexedBitSetFact<Var>> liveVars =
+                        ir.getResult(LiveVariableAnalysis.ID);
+                reachableCode = findReachableCode(cfg,
+                        evaluateConditions(ir, constants));
+                deadAssigns = findDeadAssignments(ir, liveVars);
+            }
+        }
         // keep statements (dead code) sorted in the resulting set
         Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        deadCode.addAll(deadAssigns);
+        if (reachableCode.size() < cfg.getNumberOfNodes()) {
+            // this means that some nodes are not reachable during traversal
+            for (Stmt s : ir) {
+                if (!reachableCode.contains(s)) {
+                    deadCode.add(s);
+                }
+            }
+        }
+        return deadCode;
+    }
+
+    /**
+     * @return the statements reachable from the entry of given CFG,
+     * where the branches are decided by given values of their conditions.
+     */
+    static Set<Stmt> findReachableCode(CFG<Stmt> cfg,
+                                       Map<Stmt, Value> conditions) {
         // TODO - finish me DONE
         // Your task is to recognize dead code in ir and add it to deadCode
         // 不可达代码处理，直接进行逻辑遍历，因为我们拿到了传播的常量，因此可以判断分支不可达的所有情况
@@ -75,65 +218,86 @@ public class DeadCodeDetection extends MethodAnalysis {
             } else {
                 continue;
             }
+            Value cond = conditions.get(stmt);
             cfg.getOutEdgesOf(stmt).forEach(edge -> {
                 Stmt src = edge.getSource();
-                if (src instanceof If ifStmt) {
-                    Value cond = ConstantPropagation.evaluate(
-                            ifStmt.getCondition(), constants.getInFact(ifStmt));
-                    if (cond.isConstant()) {
-                        int v = cond.getConstant();
-                        if (v == 0 && edge.getKind() == Edge.Kind.IF_FALSE ||
-                                v == 1 && edge.getKind() == Edge.Kind.IF_TRUE) {
-                            worklist.add(edge.getTarget());
-                        }
-                    } else {
+                if (src instanceof If && cond.isConstant()) {
+                    int v = cond.getConstant();
+                    if (v == 0 && edge.getKind() == Edge.Kind.IF_FALSE ||
+                            v == 1 && edge.getKind() == Edge.Kind.IF_TRUE) {
                         worklist.add(edge.getTarget());
                     }
-                } else if (src instanceof SwitchStmt switchStmt) {
-                    Value condV = ConstantPropagation.evaluate(
-                            switchStmt.getVar(), constants.getInFact(switchStmt));
-                    if (condV.isConstant()) {
-                        int v = condV.getConstant();
-                        if (edge.isSwitchCase()) {
-                            if (v == edge.getCaseValue()) {
-                                worklist.add(edge.getTarget());
-                            }
-                        } else { // default case
-                            if (switchStmt.getCaseValues()
-                                    .stream()
-                                    .noneMatch(x -> x == v)) {
-                                worklist.add(edge.getTarget());
-                            }
+                } else if (src instanceof SwitchStmt switchStmt && cond.isConstant()) {
+                    int v = cond.getConstant();
+                    if (edge.isSwitchCase()) {
+                        if (v == edge.getCaseValue()) {
+                            worklist.add(edge.getTarget());
+                        }
+                    } else { // default case
+                        if (switchStmt.getCaseValues()
+                                .stream()
+                                .noneMatch(x -> x == v)) {
+                            worklist.add(edge.getTarget());
                         }
-                    } else {
-                        worklist.add(edge.getTarget());
                     }
                 } else {
                     worklist.add(edge.getTarget());
                 }
             });
         }
+        return reachableCode;
+    }
 
+    /**
+     * @return the values of the conditions of the branch statements
+     * ({@link If} and {@link SwitchStmt}) in given IR.
+     */
+    static Map<Stmt, Value> evaluateConditions(
+            IR ir, DataflowResult<Stmt, CPFact> constants) {
+        Map<Stmt, Value> conditions = Maps.newMap();
         for (Stmt stmt : ir) {
-            if (stmt instanceof AssignStmt<?, ?> assign) {
-                if (assign.getLValue() instanceof Var lhs) {
-                    if (!liveVars.getOutFact(assign).contains(lhs) &&
-                            hasNoSideEffect(assign.getRValue())) {
-                        deadCode.add(stmt);
-                    }
-                }
+            if (stmt instanceof If ifStmt) {
+                conditions.put(stmt, ConstantPropagation.evaluate(
+                        ifStmt.getCondition(), constants.getInFact(ifStmt)));
+            } else if (stmt instanceof SwitchStmt switchStmt) {
+                conditions.put(stmt, ConstantPropagation.evaluate(
+                        switchStmt.getVar(), constants.getInFact(switchStmt)));
             }
         }
+        return conditions;
+    }
 
-        if (reachableCode.size() < cfg.getNumberOfNodes()) {
-            // this means that some nodes are not reachable during traversal
-            for (Stmt s : ir) {
-                if (!reachableCode.contains(s)) {
-                    deadCode.add(s);
+    /**
+     * @return the assignments in given IR whose left-hand side variables
+     * are dead and right-hand side expressions have no side effect.
+     */
+    private static Set<Stmt> findDeadAssignments(
+            IR ir, DataflowResult<Stmt, IndexedBitSetFact<Var>> liveVars) {
+        return findDeadAssignments(ir,
+                (stmt, var) -> liveVars.getOutFact(stmt).contains(var));
+    }
+
+    /**
+     * @param isLiveAfter decides whether a variable is live after a statement
+     * @return the assignments in given IR whose left-hand side variables
+     * are dead and right-hand side expressions have no side effect.
+     */
+    private static Set<Stmt> findDeadAssignments(
+            IR ir, BiPredicate<Stmt, Var> isLiveAfter) {
+        Set<Stmt> deadAssigns = Sets.newSet();
+        for (Stmt stmt : ir) {
+            if (stmt instanceof AssignStmt<?, ?> assign) {
+                if (assign.getLValue() instanceof Var lhs) {
+                    // check side effect first, so that the liveness
+                    // is queried only for the candidate assignments
+                    if (hasNoSideEffect(assign.getRValue()) &&
+                            !isLiveAfter.test(assign, lhs)) {
+                        deadAssigns.add(stmt);
+                    }
                 }
             }
         }
-        return deadCode;
+        return deadAssigns;
     }
 
     /**
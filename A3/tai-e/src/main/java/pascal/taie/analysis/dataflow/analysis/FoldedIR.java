@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Arrays;
+
+/**
+ * Result of {@link ConstantFolding}, i.e., the simplified IR of a method
+ * and the mapping between its statements and those of the original IR.
+ */
+public class FoldedIR {
+
+    private final IR original;
+
+    private final IR folded;
+
+    /**
+     * Maps the index of each statement in the folded IR to the index
+     * of the statement in the original IR from which it is derived.
+     */
+    private final int[] originalIndexes;
+
+    /**
+     * Maps the index of each statement in the original IR to the index
+     * of the statement in the folded IR, or -1 if it is dropped.
+     */
+    private final int[] foldedIndexes;
+
+    FoldedIR(IR original, IR folded, int[] originalIndexes) {
+        this.original = original;
+        this.folded = folded;
+        this.originalIndexes = originalIndexes;
+        this.foldedIndexes = new int[original.getStmts().size()];
+        Arrays.fill(foldedIndexes, -1);
+        for (int i = 0; i < originalIndexes.length; ++i) {
+            foldedIndexes[originalIndexes[i]] = i;
+        }
+    }
+
+    /**
+     * @return the original IR.
+     */
+    public IR getOriginalIR() {
+        return original;
+    }
+
+    /**
+     * @return the simplified IR.
+     */
+    public IR getIR() {
+        return folded;
+    }
+
+    /**
+     * @return the index of the original statement from which
+     * the statement of given index in the folded IR is derived.
+     */
+    public int getOriginalIndex(int foldedIndex) {
+        return originalIndexes[foldedIndex];
+    }
+
+    /**
+     * @return the original statement from which given statement
+     * of the folded IR is derived.
+     */
+    public Stmt getOriginalStmt(Stmt foldedStmt) {
+        return original.getStmt(originalIndexes[foldedStmt.getIndex()]);
+    }
+
+    /**
+     * @return the statement of the folded IR derived from given statement
+     * of the original IR, or null if the statement is dropped.
+     */
+    public Stmt getFoldedStmt(Stmt originalStmt) {
+        int index = foldedIndexes[originalStmt.getIndex()];
+        return index < 0 ? null : folded.getStmt(index);
+    }
+}
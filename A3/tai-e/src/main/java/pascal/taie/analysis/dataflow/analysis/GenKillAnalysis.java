@@ -0,0 +1,148 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data-flow analysis on a specific CFG, which is defined by the gen and
+ * kill sets of the nodes. The transfer function of each node is
+ * {@code gen U (fact - kill)}, and facts are met by union.
+ * <p>
+ * The gen and kill sets are created on demand, so that nodes which neither
+ * generate nor kill any elements do not occupy any space.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <E>    type of elements in data-flow facts
+ */
+public class GenKillAnalysis<Node, E extends Indexable>
+        implements DataflowAnalysis<Node, IndexedBitSetFact<E>> {
+
+    private final boolean isForward;
+
+    private final List<E> domain;
+
+    private final Map<Node, IndexedBitSetFact<E>> gens = Maps.newMap();
+
+    private final Map<Node, IndexedBitSetFact<E>> kills = Maps.newMap();
+
+    private IndexedBitSetFact<E> boundary;
+
+    /**
+     * @param isForward whether the analysis is forward
+     * @param domain    the elements that may appear in the data-flow facts.
+     *                  The index of each element must be the same as
+     *                  its position in the list.
+     */
+    public GenKillAnalysis(boolean isForward, List<E> domain) {
+        this.isForward = isForward;
+        this.domain = domain;
+    }
+
+    /**
+     * @return a new empty set over the domain of this analysis.
+     */
+    public IndexedBitSetFact<E> newSet() {
+        return new IndexedBitSetFact<>(domain);
+    }
+
+    /**
+     * @return the gen set of given node.
+     */
+    public IndexedBitSetFact<E> gen(Node node) {
+        return gens.computeIfAbsent(node, n -> newSet());
+    }
+
+    /**
+     * @return the kill set of given node.
+     */
+    public IndexedBitSetFact<E> kill(Node node) {
+        return kills.computeIfAbsent(node, n -> newSet());
+    }
+
+    /**
+     * Associates given kill set with given node. This allows the nodes
+     * which kill the same elements to share one kill set.
+     */
+    public void setKill(Node node, IndexedBitSetFact<E> kill) {
+        kills.put(node, kill);
+    }
+
+    /**
+     * @return the elements holding at the entry (exit) of the CFG for
+     * forward (backward) analysis, which are empty by default.
+     */
+    public IndexedBitSetFact<E> boundary() {
+        if (boundary == null) {
+            boundary = newSet();
+        }
+        return boundary;
+    }
+
+    @Override
+    public boolean isForward() {
+        return isForward;
+    }
+
+    @Override
+    public IndexedBitSetFact<E> newBoundaryFact(CFG<Node> cfg) {
+        return boundary == null ? newSet() : boundary.copy();
+    }
+
+    @Override
+    public IndexedBitSetFact<E> newInitialFact() {
+        return newSet();
+    }
+
+    @Override
+    public void meetInto(IndexedBitSetFact<E> fact, IndexedBitSetFact<E> target) {
+        target.union(fact);
+    }
+
+    @Override
+    public boolean transferNode(Node node, IndexedBitSetFact<E> in,
+                                IndexedBitSetFact<E> out) {
+        IndexedBitSetFact<E> gen = gens.get(node);
+        IndexedBitSetFact<E> kill = kills.get(node);
+        return isForward ?
+                out.setGenKill(in, gen, kill) :
+                in.setGenKill(out, gen, kill);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        return false;
+    }
+
+    @Override
+    public IndexedBitSetFact<E> transferEdge(Edge<Node> edge, IndexedBitSetFact<E> nodeFact) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -22,17 +22,18 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
-import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
+import java.util.List;
+
 /**
  * Implementation of classic live variable analysis.
  */
 public class LiveVariableAnalysis extends
-        AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+        BitVectorDataflowAnalysis<Stmt, Var> {
 
     public static final String ID = "livevar";
 
@@ -46,41 +47,24 @@ public class LiveVariableAnalysis extends
     }
 
     @Override
-    public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
-        // TODO - finish me DONE
-        return new SetFact<>(); // 初始化都是空
-    }
-
-    @Override
-    public SetFact<Var> newInitialFact() {
-        // TODO - finish me DONE
-        return new SetFact<>();
+    protected List<Var> getDomain(CFG<Stmt> cfg) {
+        return cfg.getIR().getVars();
     }
 
     @Override
-    public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
-        // TODO - finish me DONE
-        target.union(fact); // may分析，直接union所有live变量
-    }
-
-    @Override
-    public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
-        // TODO - finish me DONE
-        // backward分析，从out计算in
-        SetFact<Var> oldIn = in.copy(); // 复制一份老的，用于比较最终是否有改变
-        in.set(out);    // 先将in设置成out，公式为 in = gen U (out - kill)
-        // 所有的def都kill掉
-        stmt.getDef().ifPresent(def -> {
-            if (def instanceof Var) {
-                in.remove((Var) def);   // LValue -> Var, cast is Safe
-            }
-        });
-
-        stmt.getUses().forEach(use -> {
-            if (use instanceof Var) {
-                in.add((Var) use);
-            }
-        });
-        return !in.equals(oldIn);   // true if changed
+    protected void computeGenKill(CFG<Stmt> cfg, GenKillAnalysis<Stmt, Var> genKill) {
+        // in = use U (out - def)
+        for (Stmt stmt : cfg) {
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var) {
+                    genKill.kill(stmt).add((Var) def);
+                }
+            });
+            stmt.getUses().forEach(use -> {
+                if (use instanceof Var) {
+                    genKill.gen(stmt).add((Var) use);
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,180 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Answers liveness queries on demand, i.e., whether a variable is live
+ * after a statement, without computing {@link LiveVariableAnalysis}
+ * for the whole method.
+ * <p>
+ * A query searches the CFG forward from the successors of the statement
+ * for a use of the variable which is not preceded by a definition of it.
+ * The search scans straight-line code (i.e., basic blocks) at a time,
+ * and the answers are memoized per (first statement of scanned code,
+ * variable), so that later queries stop at the code scanned before.
+ * <p>
+ * As each query may scan the whole method, once the number of queries
+ * exceeds a threshold, the query falls back to the result of the exhaustive
+ * analysis, which is computed once and answers all later queries.
+ */
+public class LiveVariableQuery {
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Computes the result of the exhaustive analysis for the fallback.
+     */
+    private final Supplier<DataflowResult<Stmt, IndexedBitSetFact<Var>>> analysis;
+
+    private final int maxQueries;
+
+    /**
+     * Memoized liveness of variables at the IN of the statements
+     * where the searches started to scan.
+     */
+    private final TwoKeyMap<Stmt, Var, Boolean> liveIn = Maps.newTwoKeyMap();
+
+    private int queries = 0;
+
+    /**
+     * Result of the exhaustive analysis, or null before the fallback.
+     */
+    private DataflowResult<Stmt, IndexedBitSetFact<Var>> result;
+
+    /**
+     * @param cfg        the CFG on which the queries are answered
+     * @param analysis   computes the result of {@link LiveVariableAnalysis}
+     *                   on the CFG when the query falls back to it
+     * @param maxQueries the number of queries answered on demand
+     *                   before falling back to the exhaustive analysis
+     */
+    public LiveVariableQuery(
+            CFG<Stmt> cfg,
+            Supplier<DataflowResult<Stmt, IndexedBitSetFact<Var>>> analysis,
+            int maxQueries) {
+        this.cfg = cfg;
+        this.analysis = analysis;
+        this.maxQueries = maxQueries;
+    }
+
+    /**
+     * @return true if given variable is live after given statement,
+     * i.e., in the OUT fact of the statement computed by
+     * {@link LiveVariableAnalysis}, otherwise false.
+     */
+    public boolean isLiveAfter(Stmt stmt, Var var) {
+        if (result == null && ++queries > maxQueries) {
+            result = analysis.get();
+        }
+        if (result != null) {
+            return result.getOutFact(stmt).contains(var);
+        }
+        Set<Stmt> visited = Sets.newSet();
+        Deque<Stmt> stack = new ArrayDeque<>();
+        for (Stmt succ : cfg.getSuccsOf(stmt)) {
+            visited.add(succ);
+            stack.push(succ);
+        }
+        while (!stack.isEmpty()) {
+            Stmt start = stack.pop();
+            Boolean live = liveIn.get(start, var);
+            if (live == null) {
+                live = scan(start, var, visited, stack);
+            }
+            if (live) {
+                liveIn.put(start, var, true);
+                return true;
+            }
+        }
+        // the variable is live at none of the visited statements,
+        // as each of them is reached from the statement without
+        // passing a definition of the variable
+        for (Stmt s : visited) {
+            liveIn.put(s, var, false);
+        }
+        return false;
+    }
+
+    /**
+     * Scans the straight-line code from given statement for a use or
+     * a definition of given variable. If the code ends without either,
+     * pushes the unvisited successors of the code to given stack.
+     *
+     * @return true if the variable is used before it is defined,
+     * otherwise false.
+     */
+    private boolean scan(Stmt start, Var var, Set<Stmt> visited,
+                         Deque<Stmt> stack) {
+        Stmt stmt = start;
+        while (true) {
+            // the uses are evaluated before the definition,
+            // e.g., x = x + 1 uses x
+            if (stmt.getUses().contains(var)) {
+                return true;
+            }
+            if (stmt.getDef().filter(var::equals).isPresent()) {
+                return false;
+            }
+            Stmt next = nextInBlock(stmt);
+            if (next == null || next == start) {
+                break;
+            }
+            stmt = next;
+        }
+        for (Stmt succ : cfg.getSuccsOf(stmt)) {
+            if (visited.add(succ)) {
+                stack.push(succ);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the only successor of given statement if the successor has
+     * no other predecessor, i.e., they are in the same basic block,
+     * otherwise null.
+     */
+    private Stmt nextInBlock(Stmt stmt) {
+        if (cfg.getSuccsOf(stmt).size() == 1) {
+            Stmt succ = cfg.getSuccsOf(stmt).iterator().next();
+            if (cfg.getPredsOf(succ).size() == 1) {
+                return succ;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.AnalysisException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product of several data-flow analyses in the same direction, whose
+ * facts are {@link ProductFact}s of the facts of the components.
+ * Solving the product by one {@link Solver} runs all components with
+ * one traversal of the CFG and one work-list. The product is solved
+ * component-wise, thus for monotone components, the result of each
+ * component (obtained by {@link #project}) is the same as solving the
+ * component alone; other components may reach a different fixed point,
+ * as the product may visit the nodes in a different order.
+ * <p>
+ * For example, to run constant propagation and reaching definition
+ * analysis together:
+ * <pre>{@code
+ * ProductAnalysis<Stmt> product = new ProductAnalysis<>(List.of(cp, rd));
+ * DataflowResult<Stmt, ProductFact> result =
+ *         Solver.makeSolver(product).solve(cfg);
+ * DataflowResult<Stmt, CPFact> cpResult = product.project(result, cp);
+ * }</pre>
+ * {@link DataflowProduct} runs the product of the analyses given by
+ * its options on each method.
+ *
+ * @param <Node> type of CFG nodes
+ */
+public class ProductAnalysis<Node> implements DataflowAnalysis<Node, ProductFact> {
+
+    private final List<DataflowAnalysis<Node, Object>> components;
+
+    private final boolean isForward;
+
+    /**
+     * @param components the component analyses, which must not be empty
+     *                   and must have the same direction.
+     */
+    @SuppressWarnings("unchecked")
+    public ProductAnalysis(List<? extends DataflowAnalysis<Node, ?>> components) {
+        if (components.isEmpty()) {
+            throw new AnalysisException("Product of no analyses");
+        }
+        this.components = (List<DataflowAnalysis<Node, Object>>) List.copyOf(components);
+        this.isForward = components.get(0).isForward();
+        for (DataflowAnalysis<Node, ?> component : components) {
+            if (component.isForward() != isForward) {
+                throw new AnalysisException(
+                        "Product of forward and backward analyses: " + components);
+            }
+        }
+    }
+
+    /**
+     * @return the component analyses of this product.
+     */
+    public List<DataflowAnalysis<Node, Object>> getComponents() {
+        return components;
+    }
+
+    /**
+     * @return the result of given component, which is a view of
+     * the result of this product, i.e., it shares the facts with the
+     * product result and setting its facts updates the product result
+     * (by new product facts, the product facts are not modified).
+     */
+    public <Fact> DataflowResult<Node, Fact> project(
+            DataflowResult<Node, ProductFact> result,
+            DataflowAnalysis<Node, Fact> component) {
+        int index = indexOf(component);
+        return new ProjectedResult<>(result, index);
+    }
+
+    private int indexOf(DataflowAnalysis<Node, ?> component) {
+        for (int i = 0; i < components.size(); ++i) {
+            if (components.get(i) == component) {
+                return i;
+            }
+        }
+        throw new AnalysisException(component + " is not a component of " + this);
+    }
+
+    @Override
+    public boolean isForward() {
+        return isForward;
+    }
+
+    @Override
+    public ProductFact newBoundaryFact(CFG<Node> cfg) {
+        ProductFact fact = new ProductFact(components.size());
+        for (int i = 0; i < components.size(); ++i) {
+            fact.set(i, components.get(i).newBoundaryFact(cfg));
+        }
+        return fact;
+    }
+
+    @Override
+    public ProductFact newInitialFact() {
+        ProductFact fact = new ProductFact(components.size());
+        for (int i = 0; i < components.size(); ++i) {
+            fact.set(i, components.get(i).newInitialFact());
+        }
+        return fact;
+    }
+
+    @Override
+    public void meetInto(ProductFact fact, ProductFact target) {
+        for (int i = 0; i < components.size(); ++i) {
+            components.get(i).meetInto(fact.get(i), target.get(i));
+        }
+    }
+
+    /**
+     * Transfers all components, the product changes if any component changes.
+     */
+    @Override
+    public boolean transferNode(Node node, ProductFact in, ProductFact out) {
+        boolean changed = false;
+        for (int i = 0; i < components.size(); ++i) {
+            changed |= components.get(i).transferNode(node, in.get(i), out.get(i));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        for (DataflowAnalysis<Node, Object> component : components) {
+            if (component.needTransferEdge(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Transfers the components which need transfer for given edge,
+     * the other components of the node fact are shared by the result.
+     */
+    @Override
+    public ProductFact transferEdge(Edge<Node> edge, ProductFact nodeFact) {
+        ProductFact fact = new ProductFact(components.size());
+        for (int i = 0; i < components.size(); ++i) {
+            DataflowAnalysis<Node, Object> component = components.get(i);
+            fact.set(i, component.needTransferEdge(edge) ?
+                    component.transferEdge(edge, nodeFact.get(i)) :
+                    nodeFact.get(i));
+        }
+        return fact;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductAnalysis" + components;
+    }
+
+    /**
+     * Result of a component, which gets (sets) the facts from (to)
+     * the components of the product facts.
+     */
+    private static class ProjectedResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+        private final DataflowResult<Node, ProductFact> result;
+
+        private final int index;
+
+        private ProjectedResult(DataflowResult<Node, ProductFact> result, int index) {
+            super(Map.of(), Map.of());
+            this.result = result;
+            this.index = index;
+        }
+
+        @Override
+        public Fact getInFact(Node node) {
+            ProductFact fact = result.getInFact(node);
+            return fact != null ? fact.get(index) : null;
+        }
+
+        /**
+         * Sets a copy of the product fact of given node with the component
+         * replaced, as the product fact may be interned, i.e., shared
+         * by other nodes.
+         */
+        @Override
+        public void setInFact(Node node, Fact fact) {
+            result.setInFact(node, replace(result.getInFact(node), fact));
+        }
+
+        @Override
+        public Fact getOutFact(Node node) {
+            ProductFact fact = result.getOutFact(node);
+            return fact != null ? fact.get(index) : null;
+        }
+
+        @Override
+        public void setOutFact(Node node, Fact fact) {
+            result.setOutFact(node, replace(result.getOutFact(node), fact));
+        }
+
+        private ProductFact replace(ProductFact product, Fact fact) {
+            ProductFact copy = product.copy();
+            copy.set(index, fact);
+            return copy;
+        }
+    }
+}
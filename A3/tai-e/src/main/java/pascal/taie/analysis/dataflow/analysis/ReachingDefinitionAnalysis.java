@@ -0,0 +1,80 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.List;
+
+/**
+ * Implementation of classic reaching definition analysis.
+ * The definitions are represented by the statements which define variables.
+ */
+public class ReachingDefinitionAnalysis extends
+        BitVectorDataflowAnalysis<Stmt, Stmt> {
+
+    public static final String ID = "reachdef";
+
+    public ReachingDefinitionAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    protected List<Stmt> getDomain(CFG<Stmt> cfg) {
+        return cfg.getIR().getStmts();
+    }
+
+    @Override
+    protected void computeGenKill(CFG<Stmt> cfg, GenKillAnalysis<Stmt, Stmt> genKill) {
+        // group definitions by the variables they define
+        MultiMap<Var, Stmt> defs = Maps.newMultiMap();
+        for (Stmt stmt : cfg) {
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var) {
+                    defs.put((Var) def, stmt);
+                }
+            });
+        }
+        // out = def U (in - other definitions of the same variable)
+        // all definitions of the same variable share one kill set
+        defs.forEachSet((var, varDefs) -> {
+            IndexedBitSetFact<Stmt> kill = genKill.newSet();
+            varDefs.forEach(kill::add);
+            varDefs.forEach(stmt -> {
+                genKill.setKill(stmt, kill);
+                genKill.gen(stmt).add(stmt);
+            });
+        });
+    }
+}
@@ -23,8 +23,13 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
@@ -40,8 +45,75 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * The engine of this analysis, given by option "mode":
+     * <ul>
+     *     <li>"dense" (default): the data-flow solver over {@link CPFact}s;</li>
+     *     <li>"primitive": the data-flow solver over {@link IntCPFact}s;</li>
+     *     <li>"sparse": propagates values along def-use chains.</li>
+     * </ul>
+     */
+    private final String mode;
+
+    /**
+     * Whether the dead variables are pruned from the facts, given by
+     * option "prune-dead", see {@link PrunedConstantPropagation}.
+     * Only supported by the dense mode.
+     */
+    private final boolean pruneDead;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        String mode = getOptions().getString("mode");
+        this.mode = mode != null ? mode : "dense";
+        pruneDead = getOptions().getBooleanOrDefault("prune-dead", false);
+        if (pruneDead && !this.mode.equals("dense")) {
+            throw new ConfigException("Option prune-dead of " + ID +
+                    " is not supported by mode " + this.mode);
+        }
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        return switch (mode) {
+            case "dense" -> pruneDead ?
+                    new PrunedConstantPropagation(this, cfg, getLiveVars(ir))
+                            .solve(cfg, getOptions()) :
+                    super.analyze(ir);
+            case "primitive" -> new PrimitiveConstantPropagation(ir)
+                    .solve(cfg, getOptions(), getSolverStats());
+            case "sparse" -> new SparseConstantPropagation(this, getOptions())
+                    .solve(cfg);
+            default -> throw new ConfigException(
+                    "Unknown mode of " + ID + ": " + mode);
+        };
+    }
+
+    /**
+     * @return the result of live variable analysis stored in given IR,
+     * or computes it if absent.
+     */
+    private static DataflowResult<Stmt, IndexedBitSetFact<Var>> getLiveVars(IR ir) {
+        DataflowResult<Stmt, IndexedBitSetFact<Var>> liveVars =
+                ir.getResult(LiveVariableAnalysis.ID);
+        if (liveVars == null) {
+            liveVars = new LiveVariableAnalysis(
+                    new AnalysisConfig(LiveVariableAnalysis.ID)).analyze(ir);
+        }
+        return liveVars;
+    }
+
+    /**
+     * Only the dense mode (without pruning) re-analyzes the changed IR
+     * incrementally, the other modes analyze it from scratch, and return
+     * a new result without updating {@code previous}.
+     */
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir,
+            DataflowResult<Stmt, CPFact> previous, Collection<Stmt> changed) {
+        return mode.equals("dense") && !pruneDead ?
+                super.analyze(ir, previous, changed) : analyze(ir);
     }
 
     @Override
@@ -80,9 +152,9 @@ public class ConstantPropagation extends
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me DONE
-        for (Var var : fact.keySet()) {
-            target.update(var, meetValue(target.get(var), fact.get(var)));
-        }
+        // variables absent in target are UNDEF, whose meet with
+        // any value is the value itself, i.e., they are just copied
+        target.merge(fact, this::meetValue);
     }
 
     /**
@@ -128,12 +200,11 @@ public class ConstantPropagation extends
             Exp lvalue = ((DefinitionStmt<?, ?>) stmt).getLValue();
             if (lvalue instanceof Var lhs) {
                 Exp rhs = ((DefinitionStmt<?, ?>) stmt).getRValue();
-                boolean changed = false;
-                for (Var inVar : in.keySet()) {
-                    if (!inVar.equals(lhs)) {
-                        changed |= out.update(inVar, in.get(inVar));
-                    }
-                }
+                // removing lhs from a copy of in only copies the path to lhs,
+                // the rest of the trie is shared by in and out
+                CPFact inWithoutLhs = in.copy();
+                inWithoutLhs.remove(lhs);
+                boolean changed = out.copyFrom(inWithoutLhs);
                 return canHoldInt(lhs) ?
                         out.update(lhs, evaluate(rhs, in)) || changed :
                         changed;
@@ -204,7 +275,7 @@ public class ConstantPropagation extends
         return Value.getNAC();
     }
 
-    private static int evaluate(BinaryExp.Op op, int i1, int i2) {
+    static int evaluate(BinaryExp.Op op, int i1, int i2) {
         if (op instanceof ArithmeticExp.Op) {
             return switch ((ArithmeticExp.Op) op) {
                 case ADD -> i1 + i2;
@@ -0,0 +1,235 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.exp.Var;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents data facts of constant propagation as a primitive array,
+ * which maps the variables of a method (by {@link Var#getIndex()})
+ * to their lattice values encoded in longs:
+ * <ul>
+ *     <li>UNDEF is 0, so that a new fact maps all variables to UNDEF;</li>
+ *     <li>constant {@code c} is {@code c} (in the low 32 bits)
+ *     tagged by bit 32;</li>
+ *     <li>NAC is tagged by bit 33.</li>
+ * </ul>
+ * As two encoded values are equal iff the lattice values are equal,
+ * meeting two facts is a plain loop over the arrays, without boxing
+ * or hashing. {@link #get(Var)} and {@link #toCPFact()} give
+ * the {@link Value}-based view of this fact.
+ */
+public class IntCPFact {
+
+    static final long UNDEF = 0L;
+
+    static final long NAC = 1L << 33;
+
+    private static final long CONSTANT = 1L << 32;
+
+    /**
+     * Variables of the method, i.e., variable {@code vars.get(i)}
+     * is mapped to {@code values[i]}. Shared by all facts of the method.
+     */
+    private final List<Var> vars;
+
+    private final long[] values;
+
+    /**
+     * Constructs a new fact which maps all given variables to UNDEF.
+     */
+    public IntCPFact(List<Var> vars) {
+        this(vars, new long[vars.size()]);
+    }
+
+    private IntCPFact(List<Var> vars, long[] values) {
+        this.vars = vars;
+        this.values = values;
+    }
+
+    static long makeConstant(int value) {
+        return CONSTANT | (value & 0xffffffffL);
+    }
+
+    static boolean isConstant(long value) {
+        return (value & CONSTANT) != 0;
+    }
+
+    static int getConstant(long value) {
+        return (int) value;
+    }
+
+    /**
+     * Meets two encoded values.
+     */
+    static long meet(long v1, long v2) {
+        if (v1 == v2 || v2 == UNDEF) {
+            return v1;
+        }
+        return v1 == UNDEF ? v2 : NAC;
+    }
+
+    static long encode(Value value) {
+        if (value.isConstant()) {
+            return makeConstant(value.getConstant());
+        }
+        return value.isNAC() ? NAC : UNDEF;
+    }
+
+    static Value decode(long value) {
+        if (isConstant(value)) {
+            return Value.makeConstant(getConstant(value));
+        }
+        return value == NAC ? Value.getNAC() : Value.getUndef();
+    }
+
+    /**
+     * @return the encoded value of the variable of given index.
+     */
+    long get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Sets the encoded value of the variable of given index.
+     *
+     * @return if the update changes this fact.
+     */
+    boolean set(int index, long value) {
+        if (values[index] != value) {
+            values[index] = value;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the value of given variable in this fact.
+     */
+    public Value get(Var var) {
+        return decode(values[var.getIndex()]);
+    }
+
+    /**
+     * Updates the value of given variable in this fact.
+     *
+     * @return if the update changes this fact.
+     */
+    public boolean update(Var var, Value value) {
+        return set(var.getIndex(), encode(value));
+    }
+
+    /**
+     * Meets given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(IntCPFact fact) {
+        long[] other = fact.values;
+        boolean changed = false;
+        for (int i = 0; i < values.length; ++i) {
+            long v = meet(values[i], other[i]);
+            if (v != values[i]) {
+                values[i] = v;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Copies the content from given fact to this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(IntCPFact fact) {
+        if (Arrays.equals(values, fact.values)) {
+            return false;
+        }
+        System.arraycopy(fact.values, 0, values, 0, values.length);
+        return true;
+    }
+
+    /**
+     * Copies the content from given fact to this fact, except that the
+     * variable of given index is set to given encoded value.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    boolean copyFrom(IntCPFact fact, int index, long value) {
+        long[] other = fact.values;
+        boolean changed = false;
+        for (int i = 0; i < values.length; ++i) {
+            long v = i == index ? value : other[i];
+            if (v != values[i]) {
+                values[i] = v;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Creates and returns a copy of this fact.
+     */
+    public IntCPFact copy() {
+        return new IntCPFact(vars, values.clone());
+    }
+
+    /**
+     * @return a {@link CPFact} with the same variable-value mappings as this fact.
+     */
+    public CPFact toCPFact() {
+        CPFact fact = new CPFact();
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != UNDEF) {
+                fact.update(vars.get(i), decode(values[i]));
+            }
+        }
+        return fact;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(values, ((IntCPFact) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return toCPFact().toString();
+    }
+}
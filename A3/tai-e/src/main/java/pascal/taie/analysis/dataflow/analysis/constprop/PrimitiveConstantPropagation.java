@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Constant propagation over {@link IntCPFact}s, i.e., the same analysis
+ * as {@link ConstantPropagation} but with facts encoded in primitive
+ * arrays indexed by variables. The results are given as {@link CPFact}s,
+ * which are converted from the {@link IntCPFact}s on demand.
+ */
+class PrimitiveConstantPropagation implements DataflowAnalysis<Stmt, IntCPFact> {
+
+    private final IR ir;
+
+    PrimitiveConstantPropagation(IR ir) {
+        this.ir = ir;
+    }
+
+    DataflowResult<Stmt, CPFact> solve(CFG<Stmt> cfg, AnalysisOptions options,
+                                       SolverStats stats) {
+        return new PrimitiveResult(cfg,
+                Solver.makeSolver(this, options, stats).solve(cfg));
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public IntCPFact newBoundaryFact(CFG<Stmt> cfg) {
+        IntCPFact fact = newInitialFact();
+        for (Var param : ir.getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                fact.set(param.getIndex(), IntCPFact.NAC);
+            }
+        }
+        return fact;
+    }
+
+    @Override
+    public IntCPFact newInitialFact() {
+        return new IntCPFact(ir.getVars());
+    }
+
+    @Override
+    public void meetInto(IntCPFact fact, IntCPFact target) {
+        target.meet(fact);
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, IntCPFact in, IntCPFact out) {
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt &&
+                defStmt.getLValue() instanceof Var lhs) {
+            long value = ConstantPropagation.canHoldInt(lhs) ?
+                    evaluate(defStmt.getRValue(), in) : IntCPFact.UNDEF;
+            return out.copyFrom(in, lhs.getIndex(), value);
+        }
+        return out.copyFrom(in);
+    }
+
+    /**
+     * Evaluates the encoded value of given expression,
+     * in the same way as {@link ConstantPropagation#evaluate(Exp, CPFact)}.
+     */
+    private static long evaluate(Exp exp, IntCPFact in) {
+        if (exp instanceof IntLiteral literal) {
+            return IntCPFact.makeConstant(literal.getValue());
+        } else if (exp instanceof Var var) {
+            return ConstantPropagation.canHoldInt(var) ?
+                    in.get(var.getIndex()) : IntCPFact.NAC;
+        } else if (exp instanceof BinaryExp binary) {
+            BinaryExp.Op op = binary.getOperator();
+            long v1 = evaluate(binary.getOperand1(), in);
+            long v2 = evaluate(binary.getOperand2(), in);
+            boolean c1 = IntCPFact.isConstant(v1);
+            boolean c2 = IntCPFact.isConstant(v2);
+            // handle division-by-zero by returning UNDEF
+            if ((op == ArithmeticExp.Op.DIV || op == ArithmeticExp.Op.REM) &&
+                    c2 && IntCPFact.getConstant(v2) == 0) {
+                return IntCPFact.UNDEF;
+            }
+            if (c1 && c2) {
+                return IntCPFact.makeConstant(ConstantPropagation.evaluate(op,
+                        IntCPFact.getConstant(v1), IntCPFact.getConstant(v2)));
+            }
+            if (v1 == IntCPFact.NAC || v2 == IntCPFact.NAC) {
+                return IntCPFact.NAC;
+            }
+            return IntCPFact.UNDEF;
+        }
+        return IntCPFact.NAC;
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        return false;
+    }
+
+    @Override
+    public IntCPFact transferEdge(Edge<Stmt> edge, IntCPFact nodeFact) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Data-flow result which converts the {@link IntCPFact}s
+     * to {@link CPFact}s on demand.
+     */
+    private static class PrimitiveResult extends IndexedDataflowResult<Stmt, CPFact> {
+
+        private final DataflowResult<Stmt, IntCPFact> result;
+
+        private PrimitiveResult(CFG<Stmt> cfg, DataflowResult<Stmt, IntCPFact> result) {
+            super(cfg);
+            this.result = result;
+        }
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            CPFact fact = super.getInFact(stmt);
+            if (fact == null) {
+                fact = result.getInFact(stmt).toCPFact();
+                super.setInFact(stmt, fact);
+            }
+            return fact;
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            CPFact fact = super.getOutFact(stmt);
+            if (fact == null) {
+                fact = result.getOutFact(stmt).toCPFact();
+                super.setOutFact(stmt, fact);
+            }
+            return fact;
+        }
+    }
+}
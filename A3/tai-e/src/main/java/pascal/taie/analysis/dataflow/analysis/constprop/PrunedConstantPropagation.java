@@ -0,0 +1,158 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Constant propagation whose facts are pruned by the result of live
+ * variable analysis, i.e., the OUT fact of each statement only keeps
+ * the variables which are live after the statement.
+ * <p>
+ * A variable is live at a program point iff it may be used later without
+ * being redefined, so every path which carries the value of a variable
+ * to a use keeps the variable live at all its points. Thus pruning the
+ * dead variables does not change the values of the live ones, and
+ * in particular the values at the uses are the same as those of
+ * {@link ConstantPropagation}, while the facts only grow with the
+ * number of live variables instead of assigned variables.
+ */
+class PrunedConstantPropagation implements DataflowAnalysis<Stmt, CPFact> {
+
+    private final ConstantPropagation cp;
+
+    /**
+     * Maps each statement to the variables which may be in its IN fact
+     * or defined by it, but are dead after it.
+     */
+    private final Map<Stmt, List<Var>> deadVars;
+
+    PrunedConstantPropagation(ConstantPropagation cp, CFG<Stmt> cfg,
+            DataflowResult<Stmt, IndexedBitSetFact<Var>> liveVars) {
+        this.cp = cp;
+        this.deadVars = computeDeadVars(cfg, liveVars);
+    }
+
+    /**
+     * As the OUT fact of each statement only contains the variables which
+     * are live after it (and the OUT fact of the entry only contains the
+     * parameters), the variables which may be in the IN fact of a statement
+     * are those live after (or the parameters for) its predecessors.
+     */
+    private static Map<Stmt, List<Var>> computeDeadVars(
+            CFG<Stmt> cfg, DataflowResult<Stmt, IndexedBitSetFact<Var>> liveVars) {
+        List<Var> vars = cfg.getIR().getVars();
+        Map<Stmt, List<Var>> deadVars = Maps.newMap(cfg.getNumberOfNodes());
+        for (Stmt stmt : cfg) {
+            if (cfg.isEntry(stmt) || cfg.isExit(stmt)) {
+                continue;
+            }
+            IndexedBitSetFact<Var> candidates = new IndexedBitSetFact<>(vars);
+            for (Stmt pred : cfg.getPredsOf(stmt)) {
+                if (cfg.isEntry(pred)) {
+                    cfg.getIR().getParams().forEach(candidates::add);
+                } else {
+                    candidates.union(liveVars.getOutFact(pred));
+                }
+            }
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    candidates.add(var);
+                }
+            });
+            IndexedBitSetFact<Var> liveOut = liveVars.getOutFact(stmt);
+            List<Var> dead = new ArrayList<>();
+            candidates.forEach(var -> {
+                if (!liveOut.contains(var) && ConstantPropagation.canHoldInt(var)) {
+                    dead.add(var);
+                }
+            });
+            if (!dead.isEmpty()) {
+                deadVars.put(stmt, dead);
+            }
+        }
+        return deadVars;
+    }
+
+    DataflowResult<Stmt, CPFact> solve(CFG<Stmt> cfg, AnalysisOptions options) {
+        return Solver.makeSolver(this, options, cp.getSolverStats()).solve(cfg);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public CPFact newBoundaryFact(CFG<Stmt> cfg) {
+        return cp.newBoundaryFact(cfg);
+    }
+
+    @Override
+    public CPFact newInitialFact() {
+        return cp.newInitialFact();
+    }
+
+    @Override
+    public void meetInto(CPFact fact, CPFact target) {
+        cp.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+        List<Var> dead = deadVars.get(stmt);
+        if (dead == null) {
+            return cp.transferNode(stmt, in, out);
+        }
+        // the pruning may remove the variables added by the transfer,
+        // thus compare the whole facts to find whether out changed,
+        // which is cheap as the copy shares the trie with out
+        CPFact old = out.copy();
+        cp.transferNode(stmt, in, out);
+        dead.forEach(out::remove);
+        return !out.equals(old);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        return false;
+    }
+
+    @Override
+    public CPFact transferEdge(Edge<Stmt> edge, CPFact nodeFact) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.Queue;
+
+/**
+ * Conditional constant propagation, which finds the executable CFG edges
+ * and the constants together (Wegman and Zadeck, Constant Propagation
+ * with Conditional Branches, TOPLAS 1991).
+ * <p>
+ * A statement is visited only after one of its incoming edges is found
+ * executable, and only executable edges contribute to the meet. The
+ * outgoing edges of a branch ({@link If} or {@link SwitchStmt}) are
+ * executable only if they may be taken under the current value of the
+ * condition, and none of them is taken while the condition is UNDEF.
+ * Thus, facts never flow into branches that are unreachable, which gives
+ * more constants (and more dead code) than {@link ConstantPropagation},
+ * and the statements of unreachable branches are never visited.
+ * <p>
+ * This analysis uses the node transfer and meet of
+ * {@link ConstantPropagation}, and keeps a fact per statement, as the IR
+ * is not in SSA form. The facts of the unreachable statements are empty.
+ */
+public class SCCP extends MethodAnalysis {
+
+    public static final String ID = "sccp";
+
+    private final ConstantPropagation cp;
+
+    public SCCP(AnalysisConfig config) {
+        super(config);
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+    }
+
+    @Override
+    public SCCPResult analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        SCCPResult result = new SCCPResult(cfg);
+        for (Stmt stmt : cfg) {
+            if (cfg.isEntry(stmt)) {
+                result.setInFact(stmt, cp.newBoundaryFact(cfg));
+                result.setOutFact(stmt, cp.newBoundaryFact(cfg));
+            } else {
+                result.setInFact(stmt, cp.newInitialFact());
+                result.setOutFact(stmt, cp.newInitialFact());
+            }
+        }
+        Queue<Stmt> workList = new SetQueue<>();
+        Stmt entry = cfg.getEntry();
+        result.setReachable(entry);
+        addExecutableEdges(cfg, entry, result, true, workList);
+        Stmt stmt;
+        while ((stmt = workList.poll()) != null) {
+            CPFact in = result.getInFact(stmt);
+            for (Edge<Stmt> edge : cfg.getInEdgesOf(stmt)) {
+                if (result.isExecutable(edge)) {
+                    cp.meetInto(result.getOutFact(edge.getSource()), in);
+                }
+            }
+            boolean changed = cp.transferNode(stmt, in, result.getOutFact(stmt));
+            addExecutableEdges(cfg, stmt, result, changed, workList);
+        }
+        return result;
+    }
+
+    /**
+     * Marks the outgoing edges of given statement that may be taken as
+     * executable, and adds the targets whose incoming facts may change
+     * to the work-list, i.e., the targets of newly executable edges,
+     * and the targets of all executable edges if the OUT fact changed.
+     */
+    private static void addExecutableEdges(CFG<Stmt> cfg, Stmt stmt,
+                                           SCCPResult result, boolean changed,
+                                           Queue<Stmt> workList) {
+        Value cond = evaluateCondition(stmt, result.getInFact(stmt));
+        for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+            if (mayTake(stmt, edge, cond)) {
+                Stmt target = edge.getTarget();
+                if (result.setExecutable(edge) || changed) {
+                    result.setReachable(target);
+                    workList.add(target);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the value of the condition of given statement if it is
+     * a branch, otherwise null.
+     */
+    private static Value evaluateCondition(Stmt stmt, CPFact in) {
+        if (stmt instanceof If ifStmt) {
+            return ConstantPropagation.evaluate(ifStmt.getCondition(), in);
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            return ConstantPropagation.evaluate(switchStmt.getVar(), in);
+        }
+        return null;
+    }
+
+    /**
+     * @return true if given outgoing edge of given statement may be taken
+     * when the condition of the statement is {@code cond}.
+     */
+    private static boolean mayTake(Stmt stmt, Edge<Stmt> edge, Value cond) {
+        if (cond == null || cond.isNAC()) {
+            return true;
+        }
+        if (cond.isUndef()) {
+            return false;
+        }
+        int v = cond.getConstant();
+        if (stmt instanceof If) {
+            return v == 0 && edge.getKind() == Edge.Kind.IF_FALSE ||
+                    v == 1 && edge.getKind() == Edge.Kind.IF_TRUE;
+        }
+        SwitchStmt switchStmt = (SwitchStmt) stmt;
+        if (edge.isSwitchCase()) {
+            return v == edge.getCaseValue();
+        } else { // default case
+            return switchStmt.getCaseValues()
+                    .stream()
+                    .noneMatch(x -> x == v);
+        }
+    }
+}
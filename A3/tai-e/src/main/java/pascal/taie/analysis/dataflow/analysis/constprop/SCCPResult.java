@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * Result of {@link SCCP}, which gives the constants of each statement
+ * (as {@link CPFact}s), the executable edges and the reachable statements.
+ */
+public class SCCPResult extends IndexedDataflowResult<Stmt, CPFact> {
+
+    private final Set<Edge<Stmt>> executableEdges = Sets.newSet();
+
+    /**
+     * Indexes of the reachable statements.
+     */
+    private final BitSet reachable = new BitSet();
+
+    SCCPResult(CFG<Stmt> cfg) {
+        super(cfg);
+    }
+
+    /**
+     * @return true if given edge may be taken in some execution.
+     */
+    public boolean isExecutable(Edge<Stmt> edge) {
+        return executableEdges.contains(edge);
+    }
+
+    /**
+     * @return true if given statement may be reached from the entry
+     * along executable edges.
+     */
+    public boolean isReachable(Stmt stmt) {
+        return reachable.get(stmt.getIndex());
+    }
+
+    /**
+     * @return true if given edge was not executable before the call.
+     */
+    boolean setExecutable(Edge<Stmt> edge) {
+        return executableEdges.add(edge);
+    }
+
+    void setReachable(Stmt stmt) {
+        reachable.set(stmt.getIndex());
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.GenKillAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Sparse constant propagation engine, which propagates {@link Value}s
+ * along def-use chains of int-holding variables (see
+ * {@link ConstantPropagation#canHoldInt(Var)}) instead of through
+ * every statement of the CFG.
+ * <p>
+ * The def-use chains are built from a bit-vector reaching definition
+ * analysis over the definitions of int-holding variables, where the
+ * parameters are regarded as being defined at the entry of the CFG.
+ * Then each definition is evaluated only when the value of a definition
+ * reaching one of its operands changes. The per-statement {@link CPFact}s
+ * are computed from the reaching definitions on demand, and they are the
+ * same as the facts computed by the dense (iterative) engine.
+ */
+class SparseConstantPropagation {
+
+    private final ConstantPropagation cp;
+
+    private final AnalysisOptions options;
+
+    SparseConstantPropagation(ConstantPropagation cp, AnalysisOptions options) {
+        this.cp = cp;
+        this.options = options;
+    }
+
+    DataflowResult<Stmt, CPFact> solve(CFG<Stmt> cfg) {
+        Definitions defs = new Definitions(cfg);
+        DataflowResult<Stmt, IndexedBitSetFact<Def>> reachingDefs = Solver
+                .makeSolver(defs.newReachingDefinitionAnalysis(), options,
+                        cp.getSolverStats())
+                .solve(cfg);
+        buildDefUseChains(defs, reachingDefs);
+        propagate(defs);
+        return new SparseResult(cfg, defs, reachingDefs);
+    }
+
+    /**
+     * Connects each definition to the definitions which reach
+     * its operands, and vice versa.
+     */
+    private static void buildDefUseChains(
+            Definitions defs, DataflowResult<Stmt, IndexedBitSetFact<Def>> reachingDefs) {
+        for (Def def : defs.list) {
+            if (def.stmt instanceof DefinitionStmt<?, ?> defStmt) {
+                IndexedBitSetFact<Def> in = reachingDefs.getInFact(def.stmt);
+                defStmt.getUses().forEach(use -> {
+                    if (use instanceof Var var && defs.defsOf.containsKey(var)
+                            && !def.operands.contains(var)) {
+                        IndexedBitSetFact<Def> useDefs = in.copy();
+                        useDefs.intersect(defs.defsOf.get(var));
+                        List<Def> operandDefs = new ArrayList<>(useDefs.size());
+                        useDefs.forEach(useDef -> {
+                            operandDefs.add(useDef);
+                            useDef.users.add(def);
+                        });
+                        def.operands.add(var);
+                        def.operandDefs.add(operandDefs);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Propagates values along def-use chains until reaching fixed point.
+     */
+    private void propagate(Definitions defs) {
+        Queue<Def> worklist = new ArrayDeque<>(defs.list.size());
+        BitSet inWorklist = new BitSet(defs.list.size());
+        for (Def def : defs.list) {
+            if (def.isParam()) {
+                def.value = Value.getNAC();
+            } else {
+                worklist.add(def);
+                inWorklist.set(def.index);
+            }
+        }
+        Def def;
+        while ((def = worklist.poll()) != null) {
+            inWorklist.clear(def.index);
+            Value value = evaluate(def);
+            if (!value.equals(def.value)) {
+                def.value = value;
+                for (Def user : def.users) {
+                    if (!inWorklist.get(user.index)) {
+                        worklist.add(user);
+                        inWorklist.set(user.index);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the right-hand side of given definition with the values
+     * of the definitions which reach its operands.
+     */
+    private Value evaluate(Def def) {
+        CPFact operands = new CPFact();
+        for (int i = 0; i < def.operands.size(); ++i) {
+            Value value = Value.getUndef();
+            for (Def operandDef : def.operandDefs.get(i)) {
+                value = cp.meetValue(value, operandDef.value);
+            }
+            operands.update(def.operands.get(i), value);
+        }
+        Exp rhs = ((DefinitionStmt<?, ?>) def.stmt).getRValue();
+        return ConstantPropagation.evaluate(rhs, operands);
+    }
+
+    /**
+     * A definition of an int-holding variable, i.e., a statement which
+     * assigns the variable, or the entry node for a parameter.
+     */
+    private static class Def implements Indexable {
+
+        private final int index;
+
+        private final Var var;
+
+        private final Stmt stmt;
+
+        /**
+         * The variables used by the right-hand side of this definition.
+         */
+        private final List<Var> operands = new ArrayList<>(2);
+
+        /**
+         * The definitions reaching each variable in {@link #operands}.
+         */
+        private final List<List<Def>> operandDefs = new ArrayList<>(2);
+
+        /**
+         * The definitions which use the variable defined by this definition.
+         */
+        private final List<Def> users = new ArrayList<>();
+
+        private Value value = Value.getUndef();
+
+        private Def(int index, Var var, Stmt stmt) {
+            this.index = index;
+            this.var = var;
+            this.stmt = stmt;
+        }
+
+        private boolean isParam() {
+            return !(stmt instanceof DefinitionStmt);
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return var + "@" + stmt;
+        }
+    }
+
+    /**
+     * All definitions of int-holding variables in a CFG.
+     */
+    private static class Definitions {
+
+        private final List<Def> list = new ArrayList<>();
+
+        /**
+         * Definitions of each variable.
+         */
+        private final Map<Var, IndexedBitSetFact<Def>> defsOf = Maps.newMap();
+
+        private Definitions(CFG<Stmt> cfg) {
+            for (Var param : cfg.getIR().getParams()) {
+                if (ConstantPropagation.canHoldInt(param)) {
+                    addDef(param, cfg.getEntry());
+                }
+            }
+            for (Stmt stmt : cfg.getIR()) {
+                if (stmt instanceof DefinitionStmt<?, ?> defStmt &&
+                        defStmt.getLValue() instanceof Var var &&
+                        ConstantPropagation.canHoldInt(var)) {
+                    addDef(var, stmt);
+                }
+            }
+            list.forEach(def -> defsOf
+                    .computeIfAbsent(def.var, v -> new IndexedBitSetFact<>(list))
+                    .add(def));
+        }
+
+        private void addDef(Var var, Stmt stmt) {
+            list.add(new Def(list.size(), var, stmt));
+        }
+
+        private GenKillAnalysis<Stmt, Def> newReachingDefinitionAnalysis() {
+            GenKillAnalysis<Stmt, Def> analysis = new GenKillAnalysis<>(true, list);
+            for (Def def : list) {
+                if (def.isParam()) {
+                    analysis.boundary().add(def);
+                } else {
+                    analysis.gen(def.stmt).add(def);
+                    analysis.setKill(def.stmt, defsOf.get(def.var));
+                }
+            }
+            return analysis;
+        }
+    }
+
+    /**
+     * Data-flow result which computes the {@link CPFact}s on demand,
+     * by meeting the values of the reaching definitions.
+     */
+    private class SparseResult extends IndexedDataflowResult<Stmt, CPFact> {
+
+        private final CFG<Stmt> cfg;
+
+        private final Definitions defs;
+
+        private final DataflowResult<Stmt, IndexedBitSetFact<Def>> reachingDefs;
+
+        private SparseResult(CFG<Stmt> cfg, Definitions defs,
+                             DataflowResult<Stmt, IndexedBitSetFact<Def>> reachingDefs) {
+            super(cfg);
+            this.cfg = cfg;
+            this.defs = defs;
+            this.reachingDefs = reachingDefs;
+        }
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            if (cfg.isEntry(stmt)) {
+                // the in fact of entry is the boundary fact,
+                // which is the same as its out fact
+                return getOutFact(stmt);
+            }
+            CPFact fact = super.getInFact(stmt);
+            if (fact == null) {
+                fact = toCPFact(reachingDefs.getInFact(stmt));
+                super.setInFact(stmt, fact);
+            }
+            return fact;
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            CPFact fact = super.getOutFact(stmt);
+            if (fact == null) {
+                fact = toCPFact(reachingDefs.getOutFact(stmt));
+                super.setOutFact(stmt, fact);
+            }
+            return fact;
+        }
+
+        private CPFact toCPFact(IndexedBitSetFact<Def> reaching) {
+            CPFact fact = new CPFact();
+            reaching.forEach(def -> fact.update(def.var,
+                    cp.meetValue(fact.get(def.var), def.value)));
+            return fact;
+        }
+    }
+}
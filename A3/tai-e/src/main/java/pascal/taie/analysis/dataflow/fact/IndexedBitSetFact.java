@@ -0,0 +1,246 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Streams;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Represents set-like data-flow facts whose elements are {@link Indexable}.
+ * <p>
+ * The elements are drawn from a fixed domain (e.g., the variables or
+ * the statements of an IR), where the element at position i of the
+ * domain has index i. Each fact is a dense bit vector over the domain,
+ * so that union, kill and change detection are performed word by word
+ * instead of element by element.
+ *
+ * @param <E> type of elements
+ */
+public class IndexedBitSetFact<E extends Indexable> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    /**
+     * The domain of this fact, shared by all facts of the same analysis run.
+     */
+    private final List<E> domain;
+
+    private final long[] words;
+
+    /**
+     * Constructs a new empty fact over given domain.
+     *
+     * @param domain the elements that may appear in this fact.
+     *               The index of each element must be the same as
+     *               its position in the list.
+     */
+    public IndexedBitSetFact(List<E> domain) {
+        this(domain, new long[(domain.size() + (1 << ADDRESS_BITS_PER_WORD) - 1)
+                >>> ADDRESS_BITS_PER_WORD]);
+    }
+
+    private IndexedBitSetFact(List<E> domain, long[] words) {
+        this.domain = domain;
+        this.words = words;
+    }
+
+    /**
+     * @return true if this set contains the specified element, otherwise false.
+     */
+    public boolean contains(E e) {
+        int index = e.getIndex();
+        return (words[wordIndex(index)] & (1L << index)) != 0;
+    }
+
+    /**
+     * Adds an element to this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean add(E e) {
+        int index = e.getIndex();
+        int i = wordIndex(index);
+        long old = words[i];
+        words[i] = old | (1L << index);
+        return words[i] != old;
+    }
+
+    /**
+     * Removes an element from this fact.
+     *
+     * @return true if an element was removed as a result of the call, otherwise false.
+     */
+    public boolean remove(E e) {
+        int index = e.getIndex();
+        int i = wordIndex(index);
+        long old = words[i];
+        words[i] = old & ~(1L << index);
+        return words[i] != old;
+    }
+
+    /**
+     * Unions other fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean union(IndexedBitSetFact<E> other) {
+        long changed = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long old = words[i];
+            words[i] = old | other.words[i];
+            changed |= words[i] ^ old;
+        }
+        return changed != 0;
+    }
+
+    /**
+     * Intersects this fact with other fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean intersect(IndexedBitSetFact<E> other) {
+        long changed = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long old = words[i];
+            words[i] = old & other.words[i];
+            changed |= words[i] ^ old;
+        }
+        return changed != 0;
+    }
+
+    /**
+     * Sets the content of this fact to {@code gen U (fact - kill)},
+     * i.e., the result of a gen/kill transfer function applied on given fact.
+     * Absent gen (kill) set is treated as empty set.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean setGenKill(IndexedBitSetFact<E> fact,
+                              IndexedBitSetFact<E> gen,
+                              IndexedBitSetFact<E> kill) {
+        long changed = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long w = fact.words[i];
+            if (kill != null) {
+                w &= ~kill.words[i];
+            }
+            if (gen != null) {
+                w |= gen.words[i];
+            }
+            changed |= words[i] ^ w;
+            words[i] = w;
+        }
+        return changed != 0;
+    }
+
+    /**
+     * Sets the content of this set to the same as other set.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean set(IndexedBitSetFact<E> other) {
+        return setGenKill(other, null, null);
+    }
+
+    /**
+     * Creates and returns a copy of this fact.
+     */
+    public IndexedBitSetFact<E> copy() {
+        return new IndexedBitSetFact<>(domain, words.clone());
+    }
+
+    /**
+     * Clears all content in this fact.
+     */
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Performs the given action for each element of this fact
+     * in the order of their indexes.
+     */
+    public void forEach(Consumer<E> action) {
+        for (int i = 0; i < words.length; ++i) {
+            long word = words[i];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                action.accept(domain.get((i << ADDRESS_BITS_PER_WORD) + bit));
+                word &= word - 1;
+            }
+        }
+    }
+
+    public Stream<E> stream() {
+        Stream.Builder<E> builder = Stream.builder();
+        forEach(builder);
+        return builder.build();
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    private static int wordIndex(int index) {
+        return index >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IndexedBitSetFact<?> that)) {
+            return false;
+        }
+        return Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return Streams.toString(stream());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
+
+import java.util.Map;
+
+/**
+ * A {@link DataflowResult} for nodes that have dense indexes, e.g.,
+ * the {@link pascal.taie.ir.stmt.Stmt}s of a CFG. The facts are stored
+ * in plain arrays indexed by {@link Indexable#getIndex()}, so that
+ * getting and setting facts need neither hashing nor map entries.
+ *
+ * @param <Node> type of nodes, which must be {@link Indexable}
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final Object[] inFacts;
+
+    private final Object[] outFacts;
+
+    /**
+     * Constructs an empty result for the nodes of given CFG.
+     */
+    public IndexedDataflowResult(CFG<Node> cfg) {
+        this(capacityOf(cfg));
+    }
+
+    /**
+     * @param capacity the number of nodes, i.e., all node indexes must be
+     *                 less than {@code capacity}.
+     */
+    public IndexedDataflowResult(int capacity) {
+        super(Map.of(), Map.of());
+        inFacts = new Object[capacity];
+        outFacts = new Object[capacity];
+    }
+
+    private static <Node> int capacityOf(CFG<Node> cfg) {
+        int capacity = 0;
+        for (Node node : cfg) {
+            capacity = Math.max(capacity, ((Indexable) node).getIndex() + 1);
+        }
+        return capacity;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Node node) {
+        return (Fact) inFacts[((Indexable) node).getIndex()];
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        inFacts[((Indexable) node).getIndex()] = fact;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Node node) {
+        return (Fact) outFacts[((Indexable) node).getIndex()];
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        outFacts[((Indexable) node).getIndex()] = fact;
+    }
+}
@@ -0,0 +1,680 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Represents map-like data-flow facts whose mappings are kept in a
+ * persistent hash array mapped trie (HAMT).
+ * <p>
+ * The trie is never modified in place: an update copies only the path
+ * from the root to the changed entry, and {@link #copy()} merely shares
+ * the root, so the facts of neighbouring nodes share most of their
+ * structure. Operations that leave the mappings unchanged return the
+ * very same trie, thus the change detection of {@link #update},
+ * {@link #copyFrom} and {@link #merge} is a reference comparison of the
+ * roots. In particular, {@link #copyFrom} makes this fact alias the trie
+ * of the given fact whenever the result has exactly its mappings.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public class PersistentMapFact<K, V> {
+
+    /**
+     * Bits of hash consumed by each level of the trie.
+     */
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * Shifts greater than this value have consumed the whole hash,
+     * keys that reach them have identical hashes.
+     */
+    private static final int MAX_SHIFT = 30;
+
+    /**
+     * The root of the trie, or null if this fact is empty.
+     */
+    private Node root;
+
+    /**
+     * Constructs a new empty PersistentMapFact.
+     */
+    public PersistentMapFact() {
+    }
+
+    /**
+     * Constructs a new PersistentMapFact with the same mappings as
+     * given fact. This takes constant time as the trie is shared.
+     */
+    protected PersistentMapFact(PersistentMapFact<K, V> fact) {
+        this.root = fact.root;
+    }
+
+    /**
+     * @return the value to which the specified key is mapped,
+     * or null if this map contains no mapping for the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        return root == null ? null : (V) root.get(key, hash(key), 0);
+    }
+
+    /**
+     * Updates the key-value mapping in this fact.
+     *
+     * @return if the update changes this fact.
+     */
+    public boolean update(K key, V value) {
+        Node old = root;
+        root = put(root, new Leaf(key, hash(key), value), REPLACE, 0);
+        return root != old;
+    }
+
+    /**
+     * Removes the key-value mapping for given key.
+     *
+     * @return the previous value associated with key,
+     * or null if there was no mapping for key.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        if (root == null) {
+            return null;
+        }
+        int hash = hash(key);
+        V value = (V) root.get(key, hash, 0);
+        if (value != null) {
+            root = root.remove(key, hash, 0);
+        }
+        return value;
+    }
+
+    /**
+     * Copies the content from given fact to this fact, i.e., the mappings
+     * of given fact overwrite the ones of this fact for the same keys.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(PersistentMapFact<K, V> fact) {
+        Node old = root;
+        root = merge(root, fact.root, REPLACE, 0);
+        return root != old;
+    }
+
+    /**
+     * Merges the content of given fact into this fact. For each key in
+     * given fact, if this fact has no mapping for the key, the mapping of
+     * given fact is copied, otherwise the key is mapped to the result of
+     * applying the remapping function to the value in this fact and
+     * the one in given fact, like {@link Map#merge}.
+     * <p>
+     * The remapping function must be idempotent (i.e., {@code f(v, v)}
+     * equals {@code v}) and must not return null, so that sub-tries
+     * shared by both facts can be skipped.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean merge(PersistentMapFact<K, V> fact,
+                         BiFunction<? super V, ? super V, ? extends V> remapping) {
+        Node old = root;
+        root = merge(root, fact.root, remapping, 0);
+        return root != old;
+    }
+
+    /**
+     * Creates and returns a copy of this fact.
+     */
+    public PersistentMapFact<K, V> copy() {
+        return new PersistentMapFact<>(this);
+    }
+
+    /**
+     * Clears all content in this fact.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * @return true if this fact contains no mappings.
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * @return the number of key-value mappings in this fact.
+     */
+    public int size() {
+        return root == null ? 0 : root.size();
+    }
+
+    /**
+     * @return a {@link Set} view of the keys contained in this fact.
+     * The view is a snapshot, i.e., later updates of this fact are
+     * not reflected in it.
+     */
+    public Set<K> keySet() {
+        Node snapshot = root;
+        return new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o != null && snapshot != null &&
+                        snapshot.get(o, hash(o), 0) != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<K> iterator() {
+                List<K> keys = new ArrayList<>(size());
+                if (snapshot != null) {
+                    snapshot.forEach((k, v) -> keys.add((K) k));
+                }
+                return keys.iterator();
+            }
+
+            @Override
+            public int size() {
+                return snapshot == null ? 0 : snapshot.size();
+            }
+        };
+    }
+
+    /**
+     * @return all entries (key-value mappings) in this fact.
+     */
+    public Stream<Map.Entry<K, V>> entries() {
+        List<Map.Entry<K, V>> entries = new ArrayList<>(size());
+        forEach((k, v) -> entries.add(Map.entry(k, v)));
+        return entries.stream();
+    }
+
+    /**
+     * Performs the given action for each entry(key-value mapping) in this fact
+     * until all entries have been processed or the action throws an exception.
+     *
+     * @param action the action to be performed for each entry.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<K, V> action) {
+        if (root != null) {
+            root.forEach((k, v) -> action.accept((K) k, (V) v));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PersistentMapFact<?, ?> that = (PersistentMapFact<?, ?>) o;
+        return equals(root, that.root);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Map.hashCode()
+        int[] h = { 0 };
+        if (root != null) {
+            root.forEach((k, v) -> h[0] += k.hashCode() ^ v.hashCode());
+        }
+        return h[0];
+    }
+
+    @Override
+    public String toString() {
+        // Sort key-value pairs by key's string representation, so that the
+        // fact representation is stable across executions. This is useful
+        // for comparing expected results and the ones given by the analysis.
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
+    }
+
+    // ---------- the trie ----------
+
+    private static final BiFunction<Object, Object, Object> REPLACE =
+            (oldValue, newValue) -> newValue;
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int index(int hash, int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    /**
+     * Inserts given leaf into the trie rooted at node. If the key is already
+     * present, it is mapped to {@code remapping(oldValue, leaf.value)}.
+     *
+     * @return the new trie, or node itself if nothing changes.
+     */
+    private static Node put(Node node, Leaf leaf,
+                            BiFunction<Object, Object, Object> remapping,
+                            int shift) {
+        if (node == null) {
+            return new Bitmap(1 << index(leaf.hash, shift), new Object[]{ leaf });
+        }
+        return node.put(leaf, remapping, shift);
+    }
+
+    /**
+     * Merges the trie rooted at b into the one rooted at a.
+     *
+     * @return the merged trie, which is a itself if the merge changes
+     * nothing, or b itself if the merged trie has exactly the mappings of b.
+     */
+    @SuppressWarnings("unchecked")
+    private static Node merge(Node a, Node b, BiFunction<?, ?, ?> remapping,
+                              int shift) {
+        if (a == b || b == null) {
+            return a;
+        }
+        if (a == null) {
+            return b;
+        }
+        BiFunction<Object, Object, Object> f =
+                (BiFunction<Object, Object, Object>) remapping;
+        if (a instanceof Bitmap ba && b instanceof Bitmap bb) {
+            return ba.merge(bb, f, shift);
+        }
+        // hash collisions: merge entry by entry
+        Node[] result = { a };
+        b.forEach((k, v) -> result[0] = result[0].put(
+                new Leaf(k, hash(k), v), f, shift));
+        return result[0];
+    }
+
+    /**
+     * Merges two slots of the same position of bitmap nodes.
+     */
+    private static Object mergeSlot(Object sa, Object sb,
+                                    BiFunction<Object, Object, Object> f,
+                                    int shift) {
+        if (sa == sb || sb == null) {
+            return sa;
+        }
+        if (sa == null) {
+            return sb;
+        }
+        if (sa instanceof Leaf la) {
+            if (sb instanceof Leaf lb) {
+                if (la.key.equals(lb.key)) {
+                    Object value = f.apply(la.value, lb.value);
+                    if (value.equals(la.value)) {
+                        return la;
+                    } else if (value.equals(lb.value)) {
+                        return lb;
+                    } else {
+                        return new Leaf(la.key, la.hash, value);
+                    }
+                }
+                return pair(la, lb, shift);
+            }
+            // insert la into sb with flipped arguments of remapping
+            return ((Node) sb).put(la, (vb, va) -> f.apply(va, vb), shift);
+        }
+        if (sb instanceof Leaf lb) {
+            return ((Node) sa).put(lb, f, shift);
+        }
+        return merge((Node) sa, (Node) sb, f, shift);
+    }
+
+    /**
+     * Creates a node containing two leaves of different keys.
+     */
+    private static Node pair(Leaf l1, Leaf l2, int shift) {
+        if (shift > MAX_SHIFT) {
+            return new Collision(l1.hash, new Leaf[]{ l1, l2 });
+        }
+        int i1 = index(l1.hash, shift);
+        int i2 = index(l2.hash, shift);
+        if (i1 == i2) {
+            return new Bitmap(1 << i1,
+                    new Object[]{ pair(l1, l2, shift + BITS) });
+        }
+        return new Bitmap((1 << i1) | (1 << i2),
+                i1 < i2 ? new Object[]{ l1, l2 } : new Object[]{ l2, l1 });
+    }
+
+    /**
+     * Compares two tries. As the shape of a trie is determined by its keys,
+     * tries of equal mappings have the same shape (except for the order of
+     * colliding leaves), and sub-tries shared by both are skipped.
+     */
+    private static boolean equals(Node a, Node b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.size() != b.size()) {
+            return false;
+        }
+        if (a instanceof Bitmap ba && b instanceof Bitmap bb) {
+            if (ba.bitmap != bb.bitmap) {
+                return false;
+            }
+            for (int i = 0; i < ba.slots.length; ++i) {
+                Object sa = ba.slots[i], sb = bb.slots[i];
+                if (sa != sb) {
+                    if (sa instanceof Leaf la && sb instanceof Leaf lb) {
+                        if (!la.key.equals(lb.key) || !la.value.equals(lb.value)) {
+                            return false;
+                        }
+                    } else if (sa instanceof Node na && sb instanceof Node nb) {
+                        if (!equals(na, nb)) {
+                            return false;
+                        }
+                    } else {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        if (a instanceof Collision ca && b instanceof Collision) {
+            for (Leaf leaf : ca.leaves) {
+                if (!leaf.value.equals(b.get(leaf.key, leaf.hash, 0))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private record Leaf(Object key, int hash, Object value) {
+    }
+
+    private abstract static class Node {
+
+        abstract Object get(Object key, int hash, int shift);
+
+        abstract Node put(Leaf leaf, BiFunction<Object, Object, Object> remapping,
+                          int shift);
+
+        /**
+         * @return the trie without given key, or null if it becomes empty.
+         * A node left with a single leaf is returned as the leaf itself,
+         * which is unwrapped by the parent.
+         */
+        abstract Node remove(Object key, int hash, int shift);
+
+        abstract int size();
+
+        /**
+         * @return a leaf of this node, used to unwrap single-entry nodes.
+         */
+        abstract Leaf anyLeaf();
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Node indexed by a bitmap of the occupied positions. Each slot holds
+     * either a {@link Leaf} or a sub-{@link Node}; a sub-node always
+     * contains at least two entries.
+     */
+    private static final class Bitmap extends Node {
+
+        private final int bitmap;
+
+        private final Object[] slots;
+
+        private final int size;
+
+        private Bitmap(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+            int size = 0;
+            for (Object slot : slots) {
+                size += slot instanceof Node node ? node.size() : 1;
+            }
+            this.size = size;
+        }
+
+        private int position(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int bit = 1 << index(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[position(bit)];
+            if (slot instanceof Leaf leaf) {
+                return leaf.key.equals(key) ? leaf.value : null;
+            }
+            return ((Node) slot).get(key, hash, shift + BITS);
+        }
+
+        @Override
+        Node put(Leaf leaf, BiFunction<Object, Object, Object> remapping,
+                 int shift) {
+            int bit = 1 << index(leaf.hash, shift);
+            int pos = position(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, pos);
+                newSlots[pos] = leaf;
+                System.arraycopy(slots, pos, newSlots, pos + 1, slots.length - pos);
+                return new Bitmap(bitmap | bit, newSlots);
+            }
+            Object slot = slots[pos];
+            Object newSlot;
+            if (slot instanceof Leaf old) {
+                if (old.key.equals(leaf.key)) {
+                    Object value = remapping.apply(old.value, leaf.value);
+                    newSlot = value.equals(old.value) ? old :
+                            value.equals(leaf.value) ? leaf :
+                                    new Leaf(old.key, old.hash, value);
+                } else {
+                    newSlot = pair(old, leaf, shift + BITS);
+                }
+            } else {
+                newSlot = ((Node) slot).put(leaf, remapping, shift + BITS);
+            }
+            return newSlot == slot ? this : with(pos, newSlot);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int bit = 1 << index(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int pos = position(bit);
+            Object slot = slots[pos];
+            Object newSlot;
+            if (slot instanceof Leaf leaf) {
+                newSlot = leaf.key.equals(key) ? null : leaf;
+            } else {
+                Node sub = ((Node) slot).remove(key, hash, shift + BITS);
+                newSlot = sub != null && sub.size() == 1 ? sub.anyLeaf() : sub;
+            }
+            if (newSlot == slot) {
+                return this;
+            }
+            if (newSlot != null) {
+                return with(pos, newSlot);
+            }
+            if (slots.length == 1) {
+                return null;
+            }
+            Object[] newSlots = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, newSlots, 0, pos);
+            System.arraycopy(slots, pos + 1, newSlots, pos, newSlots.length - pos);
+            return new Bitmap(bitmap & ~bit, newSlots);
+        }
+
+        /**
+         * Merges b into this node at the same level.
+         */
+        private Node merge(Bitmap b, BiFunction<Object, Object, Object> f,
+                           int shift) {
+            int merged = bitmap | b.bitmap;
+            Object[] newSlots = new Object[Integer.bitCount(merged)];
+            boolean sameAsA = merged == bitmap;
+            boolean sameAsB = merged == b.bitmap;
+            for (int i = 0, bits = merged; bits != 0; ++i, bits &= bits - 1) {
+                int bit = Integer.lowestOneBit(bits);
+                Object sa = (bitmap & bit) != 0 ? slots[position(bit)] : null;
+                Object sb = (b.bitmap & bit) != 0 ? b.slots[b.position(bit)] : null;
+                Object slot = mergeSlot(sa, sb, f, shift + BITS);
+                sameAsA &= slot == sa;
+                sameAsB &= slot == sb;
+                newSlots[i] = slot;
+            }
+            return sameAsA ? this : sameAsB ? b : new Bitmap(merged, newSlots);
+        }
+
+        private Bitmap with(int pos, Object slot) {
+            Object[] newSlots = slots.clone();
+            newSlots[pos] = slot;
+            return new Bitmap(bitmap, newSlots);
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        Leaf anyLeaf() {
+            return slots[0] instanceof Leaf leaf ? leaf : ((Node) slots[0]).anyLeaf();
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (Object slot : slots) {
+                if (slot instanceof Leaf leaf) {
+                    action.accept(leaf.key, leaf.value);
+                } else {
+                    ((Node) slot).forEach(action);
+                }
+            }
+        }
+    }
+
+    /**
+     * Node holding the leaves whose keys have identical hashes.
+     */
+    private static final class Collision extends Node {
+
+        private final int hash;
+
+        private final Leaf[] leaves;
+
+        private Collision(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < leaves.length; ++i) {
+                if (leaves[i].key.equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            return i < 0 ? null : leaves[i].value;
+        }
+
+        @Override
+        Node put(Leaf leaf, BiFunction<Object, Object, Object> remapping,
+                 int shift) {
+            int i = indexOf(leaf.key);
+            Leaf[] newLeaves;
+            if (i < 0) {
+                newLeaves = new Leaf[leaves.length + 1];
+                System.arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+                newLeaves[leaves.length] = leaf;
+            } else {
+                Leaf old = leaves[i];
+                Object value = remapping.apply(old.value, leaf.value);
+                if (value.equals(old.value)) {
+                    return this;
+                }
+                newLeaves = leaves.clone();
+                newLeaves[i] = new Leaf(old.key, old.hash, value);
+            }
+            return new Collision(hash, newLeaves);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            Leaf[] newLeaves = new Leaf[leaves.length - 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, i);
+            System.arraycopy(leaves, i + 1, newLeaves, i, newLeaves.length - i);
+            return new Collision(hash, newLeaves);
+        }
+
+        @Override
+        int size() {
+            return leaves.length;
+        }
+
+        @Override
+        Leaf anyLeaf() {
+            return leaves[0];
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (Leaf leaf : leaves) {
+                action.accept(leaf.key, leaf.value);
+            }
+        }
+    }
+}
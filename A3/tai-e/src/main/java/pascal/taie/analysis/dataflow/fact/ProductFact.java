@@ -0,0 +1,92 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.Arrays;
+
+/**
+ * Data-flow fact of a product of analyses, which consists of
+ * one fact (component) of each analysis.
+ *
+ * @see pascal.taie.analysis.dataflow.analysis.ProductAnalysis
+ */
+public class ProductFact {
+
+    private final Object[] components;
+
+    public ProductFact(int size) {
+        components = new Object[size];
+    }
+
+    /**
+     * @return the number of components of this fact.
+     */
+    public int size() {
+        return components.length;
+    }
+
+    /**
+     * @return the i-th component of this fact.
+     */
+    @SuppressWarnings("unchecked")
+    public <Fact> Fact get(int i) {
+        return (Fact) components[i];
+    }
+
+    /**
+     * Sets the i-th component of this fact.
+     */
+    public void set(int i, Object fact) {
+        components[i] = fact;
+    }
+
+    /**
+     * @return a copy of this fact, which shares the components with this fact.
+     */
+    public ProductFact copy() {
+        ProductFact copy = new ProductFact(components.length);
+        System.arraycopy(components, 0, copy.components, 0, components.length);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(components, ((ProductFact) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Work-list solver at the granularity of basic blocks.
+ * <p>
+ * The CFG is partitioned into basic blocks, i.e., maximal chains of nodes
+ * where each node except the last one has exactly one successor, and each
+ * node except the first one has exactly one predecessor. The entry and
+ * exit nodes are blocks of their own. The work-list holds blocks (ordered
+ * by the reverse postorder of their first nodes in the flow direction),
+ * and the transfer functions of the nodes in a block are composed, i.e.,
+ * applied one by one, each on a new intermediate fact.
+ * <p>
+ * The result only stores the IN fact of the first node and the OUT fact
+ * of the last node of each block. The facts of the nodes inside a block
+ * are recomputed from the stored facts when they are queried, and the
+ * recomputed facts of the block queried last are cached. Like interned
+ * facts, the returned facts must not be modified in place.
+ */
+class BlockSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    BlockSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        return new BlockResult<>(analysis, cfg);
+    }
+
+    @Override
+    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        initialize(cfg, (BlockResult<Node, Fact>) result, cfg.getEntry());
+    }
+
+    @Override
+    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        initialize(cfg, (BlockResult<Node, Fact>) result, cfg.getExit());
+    }
+
+    private void initialize(CFG<Node> cfg, BlockResult<Node, Fact> result,
+                            Node boundary) {
+        for (List<Node> block : result.blocks) {
+            Node head = block.get(0);
+            Node tail = block.get(block.size() - 1);
+            if (head.equals(boundary)) {
+                result.setInFact(head, analysis.newBoundaryFact(cfg));
+                result.setOutFact(tail, analysis.newBoundaryFact(cfg));
+            } else {
+                result.setInFact(head, analysis.newInitialFact());
+                result.setOutFact(tail, analysis.newInitialFact());
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        doSolve(cfg, (BlockResult<Node, Fact>) result, true);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        doSolve(cfg, (BlockResult<Node, Fact>) result, false);
+    }
+
+    private void doSolve(CFG<Node> cfg, BlockResult<Node, Fact> result,
+                         boolean forward) {
+        List<List<Node>> blocks = result.blocks;
+        Node boundary = forward ? cfg.getEntry() : cfg.getExit();
+        BitSet workList = new BitSet(blocks.size());
+        for (int i = 0; i < blocks.size(); ++i) {
+            if (!blocks.get(i).get(0).equals(boundary)) {
+                workList.set(i);
+            }
+        }
+        updateWorkListSize(workList.cardinality());
+        int b;
+        while ((b = workList.nextSetBit(0)) >= 0) {
+            workList.clear(b);
+            countNodeVisit();
+            List<Node> block = blocks.get(b);
+            Node head = block.get(0);
+            Node tail = block.get(block.size() - 1);
+            Fact in = result.getInFact(head);
+            Fact out = result.getOutFact(tail);
+            boolean changed;
+            if (forward) {
+                // the predecessors of the first node are the last
+                // nodes of their blocks, whose OUT facts are stored
+                for (Node pred : cfg.getPredsOf(head)) {
+                    meetInto(result.getOutFact(pred), in);
+                }
+                changed = transferForward(block, in, out);
+            } else {
+                for (Node succ : cfg.getSuccsOf(tail)) {
+                    meetInto(result.getInFact(succ), out);
+                }
+                changed = transferBackward(block, in, out);
+            }
+            if (changed) {
+                for (Node next : forward ?
+                        cfg.getSuccsOf(tail) : cfg.getPredsOf(head)) {
+                    workList.set(result.blockOf.get(next));
+                }
+                updateWorkListSize(workList.cardinality());
+            }
+        }
+    }
+
+    /**
+     * Applies the composed transfer function of given block in forward direction.
+     *
+     * @return true if the OUT fact of the block changed, otherwise false.
+     */
+    private boolean transferForward(List<Node> block, Fact in, Fact out) {
+        Fact fact = in;
+        int last = block.size() - 1;
+        for (int i = 0; i < last; ++i) {
+            Fact next = analysis.newInitialFact();
+            transferNode(block.get(i), fact, next);
+            fact = next;
+        }
+        return transferNode(block.get(last), fact, out);
+    }
+
+    /**
+     * Applies the composed transfer function of given block in backward direction.
+     *
+     * @return true if the IN fact of the block changed, otherwise false.
+     */
+    private boolean transferBackward(List<Node> block, Fact in, Fact out) {
+        Fact fact = out;
+        for (int i = block.size() - 1; i > 0; --i) {
+            Fact next = analysis.newInitialFact();
+            transferNode(block.get(i), next, fact);
+            fact = next;
+        }
+        return transferNode(block.get(0), in, fact);
+    }
+
+    /**
+     * The blocks are computed from the CFG, which may change arbitrarily,
+     * thus this solver re-solves the CFG from scratch, and returns a new
+     * result without updating {@code previous}.
+     */
+    @Override
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg,
+            DataflowResult<Node, Fact> previous, Collection<Node> changed) {
+        return solve(cfg);
+    }
+
+    /**
+     * Interns the stored facts, i.e., the IN and OUT facts of the blocks.
+     */
+    @Override
+    protected void internFacts(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockResult<Node, Fact> blockResult = (BlockResult<Node, Fact>) result;
+        Map<Fact, Fact> canonical = Maps.newMap();
+        for (List<Node> block : blockResult.blocks) {
+            Node head = block.get(0);
+            Node tail = block.get(block.size() - 1);
+            blockResult.setInFact(head, canonical.computeIfAbsent(
+                    blockResult.getInFact(head), f -> f));
+            blockResult.setOutFact(tail, canonical.computeIfAbsent(
+                    blockResult.getOutFact(tail), f -> f));
+        }
+        updateSharing(2 * blockResult.blocks.size(), canonical.size());
+    }
+
+    /**
+     * Data-flow result which stores the facts at the boundaries of
+     * the basic blocks, and recomputes the other facts on demand.
+     */
+    private static class BlockResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+        private final DataflowAnalysis<Node, Fact> analysis;
+
+        /**
+         * Basic blocks in reverse postorder of their first nodes
+         * in the flow direction.
+         */
+        private final List<List<Node>> blocks;
+
+        /**
+         * Maps each node to the number of its block.
+         */
+        private final Map<Node, Integer> blockOf;
+
+        /**
+         * Maps each node to its position in its block.
+         */
+        private final Map<Node, Integer> positionOf;
+
+        /**
+         * IN facts of the first nodes of the blocks.
+         */
+        private final Object[] inFacts;
+
+        /**
+         * OUT facts of the last nodes of the blocks.
+         */
+        private final Object[] outFacts;
+
+        /**
+         * Facts of the block queried last, or null if none.
+         */
+        private volatile BlockFacts cached;
+
+        private BlockResult(DataflowAnalysis<Node, Fact> analysis, CFG<Node> cfg) {
+            super(Map.of(), Map.of());
+            this.analysis = analysis;
+            this.blocks = buildBlocks(cfg, analysis.isForward());
+            this.blockOf = Maps.newMap(cfg.getNumberOfNodes());
+            this.positionOf = Maps.newMap(cfg.getNumberOfNodes());
+            for (int b = 0; b < blocks.size(); ++b) {
+                List<Node> block = blocks.get(b);
+                for (int i = 0; i < block.size(); ++i) {
+                    blockOf.put(block.get(i), b);
+                    positionOf.put(block.get(i), i);
+                }
+            }
+            inFacts = new Object[blocks.size()];
+            outFacts = new Object[blocks.size()];
+        }
+
+        /**
+         * Partitions the nodes of given CFG into basic blocks.
+         */
+        private static <Node> List<List<Node>> buildBlocks(
+                CFG<Node> cfg, boolean forward) {
+            Set<Node> visited = Sets.newSet(cfg.getNumberOfNodes());
+            List<List<Node>> blocks = new ArrayList<>();
+            for (Node node : cfg) {
+                if (isHead(cfg, node)) {
+                    blocks.add(buildBlock(cfg, node, visited));
+                }
+            }
+            // nodes which are not reachable from any head are on
+            // cycles of single-successor nodes, each of which is
+            // broken at an arbitrary node
+            if (visited.size() < cfg.getNumberOfNodes()) {
+                for (Node node : cfg) {
+                    if (!visited.contains(node)) {
+                        blocks.add(buildBlock(cfg, node, visited));
+                    }
+                }
+            }
+            List<Node> rpo = PriorityWorkList.reversePostOrder(cfg, forward);
+            Map<Node, Integer> order = Maps.newMap(rpo.size());
+            for (int i = 0; i < rpo.size(); ++i) {
+                order.put(rpo.get(i), i);
+            }
+            blocks.sort((b1, b2) -> Integer.compare(
+                    order.get(forward ? b1.get(0) : b1.get(b1.size() - 1)),
+                    order.get(forward ? b2.get(0) : b2.get(b2.size() - 1))));
+            return blocks;
+        }
+
+        private static <Node> List<Node> buildBlock(
+                CFG<Node> cfg, Node head, Set<Node> visited) {
+            List<Node> block = new ArrayList<>();
+            Node node = head;
+            visited.add(node);
+            block.add(node);
+            while (!isTail(cfg, node)) {
+                node = cfg.getSuccsOf(node).iterator().next();
+                if (!visited.add(node)) {
+                    break;
+                }
+                block.add(node);
+            }
+            return block;
+        }
+
+        /**
+         * @return true if given node starts a basic block.
+         */
+        private static <Node> boolean isHead(CFG<Node> cfg, Node node) {
+            if (cfg.isEntry(node) || cfg.isExit(node) ||
+                    cfg.getPredsOf(node).size() != 1) {
+                return true;
+            }
+            Node pred = cfg.getPredsOf(node).iterator().next();
+            return cfg.isEntry(pred) || cfg.getSuccsOf(pred).size() != 1;
+        }
+
+        /**
+         * @return true if given node ends a basic block.
+         */
+        private static <Node> boolean isTail(CFG<Node> cfg, Node node) {
+            if (cfg.isEntry(node) || cfg.isExit(node) ||
+                    cfg.getSuccsOf(node).size() != 1) {
+                return true;
+            }
+            return isHead(cfg, cfg.getSuccsOf(node).iterator().next());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Fact getInFact(Node node) {
+            int b = blockOf.get(node);
+            int pos = positionOf.get(node);
+            if (pos == 0) {
+                return (Fact) inFacts[b];
+            }
+            return (Fact) getBlockFacts(b)[pos];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Fact getOutFact(Node node) {
+            int b = blockOf.get(node);
+            int pos = positionOf.get(node);
+            if (pos == blocks.get(b).size() - 1) {
+                return (Fact) outFacts[b];
+            }
+            return (Fact) getBlockFacts(b)[pos + 1];
+        }
+
+        /**
+         * @return the facts between the nodes of given block, i.e., the i-th
+         * fact is the IN fact of the i-th node, and the OUT fact of the
+         * (i-1)-th node. The facts of the block queried last are cached,
+         * so querying all nodes of a block (in any order) recomputes
+         * the facts of the block only once, by one transfer per node.
+         */
+        private Object[] getBlockFacts(int b) {
+            BlockFacts cached = this.cached;
+            if (cached != null && cached.block == b) {
+                return cached.facts;
+            }
+            Object[] facts = analysis.isForward() ?
+                    computeForward(b) : computeBackward(b);
+            this.cached = new BlockFacts(b, facts);
+            return facts;
+        }
+
+        /**
+         * Computes the facts between the nodes of given block
+         * from the IN fact of the block.
+         */
+        @SuppressWarnings("unchecked")
+        private Object[] computeForward(int b) {
+            List<Node> block = blocks.get(b);
+            Object[] facts = new Object[block.size() + 1];
+            facts[0] = inFacts[b];
+            for (int i = 0; i < block.size() - 1; ++i) {
+                Fact next = analysis.newInitialFact();
+                analysis.transferNode(block.get(i), (Fact) facts[i], next);
+                facts[i + 1] = next;
+            }
+            facts[block.size()] = outFacts[b];
+            return facts;
+        }
+
+        /**
+         * Computes the facts between the nodes of given block
+         * from the OUT fact of the block.
+         */
+        @SuppressWarnings("unchecked")
+        private Object[] computeBackward(int b) {
+            List<Node> block = blocks.get(b);
+            Object[] facts = new Object[block.size() + 1];
+            facts[block.size()] = outFacts[b];
+            for (int i = block.size() - 1; i > 0; --i) {
+                Fact next = analysis.newInitialFact();
+                analysis.transferNode(block.get(i), next, (Fact) facts[i + 1]);
+                facts[i] = next;
+            }
+            facts[0] = inFacts[b];
+            return facts;
+        }
+
+        /**
+         * Sets the IN fact of given node, which must be the first node
+         * of its block, as the other IN facts are computed on demand.
+         */
+        @Override
+        public void setInFact(Node node, Fact fact) {
+            if (positionOf.get(node) != 0) {
+                throw new UnsupportedOperationException(
+                        "IN fact of " + node + " is computed on demand");
+            }
+            inFacts[blockOf.get(node)] = fact;
+            cached = null;
+        }
+
+        /**
+         * Sets the OUT fact of given node, which must be the last node
+         * of its block, as the other OUT facts are computed on demand.
+         */
+        @Override
+        public void setOutFact(Node node, Fact fact) {
+            int b = blockOf.get(node);
+            if (positionOf.get(node) != blocks.get(b).size() - 1) {
+                throw new UnsupportedOperationException(
+                        "OUT fact of " + node + " is computed on demand");
+            }
+            outFacts[b] = fact;
+            cached = null;
+        }
+
+        /**
+         * Facts between the nodes of a block, see {@link #getBlockFacts}.
+         */
+        private record BlockFacts(int block, Object[] facts) {
+        }
+    }
+}
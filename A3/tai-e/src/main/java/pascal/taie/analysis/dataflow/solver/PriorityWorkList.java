@@ -0,0 +1,170 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A work-list of CFG nodes which always removes the node with
+ * the smallest reverse-postorder number first. For forward analyses,
+ * the order is computed on the CFG from the entry node, and for
+ * backward analyses, it is computed on the reverse CFG from the exit node.
+ * <p>
+ * A node is contained at most once in this work-list, and its membership
+ * is maintained by a bitset indexed by the reverse-postorder numbers.
+ *
+ * @param <N> type of CFG nodes
+ */
+class PriorityWorkList<N> extends AbstractQueue<N> {
+
+    /**
+     * Nodes in reverse postorder, i.e., nodes[i] is the node numbered i.
+     */
+    private final List<N> nodes;
+
+    /**
+     * Maps each node to its reverse-postorder number.
+     */
+    private final Map<N, Integer> numbers;
+
+    /**
+     * Reverse-postorder numbers of the nodes in this work-list.
+     */
+    private final BitSet members;
+
+    private int size = 0;
+
+    PriorityWorkList(CFG<N> cfg, boolean forward) {
+        nodes = reversePostOrder(cfg, forward);
+        numbers = Maps.newMap(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i) {
+            numbers.put(nodes.get(i), i);
+        }
+        members = new BitSet(nodes.size());
+    }
+
+    /**
+     * Adds given node to this work-list if it is not present.
+     *
+     * @return true if this work-list changed as a result of the call,
+     * otherwise false.
+     */
+    @Override
+    public boolean add(N node) {
+        return offer(node);
+    }
+
+    @Override
+    public boolean offer(N node) {
+        int number = numbers.get(node);
+        if (members.get(number)) {
+            return false;
+        }
+        members.set(number);
+        ++size;
+        return true;
+    }
+
+    @Override
+    public N poll() {
+        int number = members.nextSetBit(0);
+        if (number < 0) {
+            return null;
+        }
+        members.clear(number);
+        --size;
+        return nodes.get(number);
+    }
+
+    @Override
+    public N peek() {
+        int number = members.nextSetBit(0);
+        return number < 0 ? null : nodes.get(number);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<N> iterator() {
+        return members.stream()
+                .mapToObj(nodes::get)
+                .iterator();
+    }
+
+    /**
+     * Computes reverse postorder of the nodes in given CFG. The depth-first
+     * traversal starts from the entry (exit) node and follows successors
+     * (predecessors) for forward (backward) order. The nodes which are not
+     * visited by the traversal are appended at the end of the order.
+     */
+    static <N> List<N> reversePostOrder(CFG<N> cfg, boolean forward) {
+        N root = forward ? cfg.getEntry() : cfg.getExit();
+        List<N> postOrder = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<N> visited = Sets.newSet(cfg.getNumberOfNodes());
+        Deque<Pair<N, Iterator<N>>> stack = new ArrayDeque<>();
+        visited.add(root);
+        stack.push(new Pair<>(root, nextsOf(cfg, root, forward)));
+        while (!stack.isEmpty()) {
+            Pair<N, Iterator<N>> top = stack.peek();
+            if (top.second().hasNext()) {
+                N next = top.second().next();
+                if (visited.add(next)) {
+                    stack.push(new Pair<>(next, nextsOf(cfg, next, forward)));
+                }
+            } else {
+                stack.pop();
+                postOrder.add(top.first());
+            }
+        }
+        Collections.reverse(postOrder);
+        if (postOrder.size() < cfg.getNumberOfNodes()) {
+            for (N node : cfg) {
+                if (!visited.contains(node)) {
+                    postOrder.add(node);
+                }
+            }
+        }
+        return postOrder;
+    }
+
+    private static <N> Iterator<N> nextsOf(CFG<N> cfg, N node, boolean forward) {
+        return (forward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node)).iterator();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Solver which decomposes the CFG into strongly connected components (SCCs),
+ * and solves the components one by one in topological order (for forward
+ * analyses) or reverse topological order (for backward analyses).
+ * <p>
+ * When a component is processed, all its predecessor (successor) components
+ * have reached their fixed points, thus a component without cycle, e.g.,
+ * a node of straight-line code, is visited exactly once, and a cyclic
+ * component (i.e., a loop) is iterated to its local fixed point, visiting
+ * its nodes in reverse postorder.
+ */
+class SCCSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    SCCSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        doSolve(cfg, result, true);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        doSolve(cfg, result, false);
+    }
+
+    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                         boolean forward) {
+        List<Node> rpo = PriorityWorkList.reversePostOrder(cfg, forward);
+        Map<Node, Integer> order = Maps.newMap(rpo.size());
+        for (int i = 0; i < rpo.size(); ++i) {
+            order.put(rpo.get(i), i);
+        }
+        MergedSCCGraph<Node> sccGraph = new MergedSCCGraph<>(cfg);
+        for (MergedNode<Node> scc : new TopoSorter<>(sccGraph, !forward).get()) {
+            List<Node> nodes = scc.getNodes();
+            if (nodes.size() == 1 && !cfg.hasEdge(nodes.get(0), nodes.get(0))) {
+                visit(cfg, nodes.get(0), result, forward);
+            } else {
+                solveComponent(cfg, nodes, order, result, forward);
+            }
+        }
+    }
+
+    /**
+     * Iterates the nodes of a cyclic component until reaching
+     * the local fixed point.
+     */
+    private void solveComponent(CFG<Node> cfg, List<Node> component,
+                                Map<Node, Integer> order,
+                                DataflowResult<Node, Fact> result,
+                                boolean forward) {
+        List<Node> nodes = component.stream()
+                .sorted(Comparator.comparingInt(order::get))
+                .toList();
+        Map<Node, Integer> positions = Maps.newMap(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i) {
+            positions.put(nodes.get(i), i);
+        }
+        BitSet worklist = new BitSet(nodes.size());
+        worklist.set(0, nodes.size());
+        // the work-list of a component never holds more than its nodes
+        updateWorkListSize(nodes.size());
+        int i;
+        while ((i = worklist.nextSetBit(0)) >= 0) {
+            worklist.clear(i);
+            Node node = nodes.get(i);
+            if (visit(cfg, node, result, forward)) {
+                for (Node next : forward ?
+                        cfg.getSuccsOf(node) : cfg.getPredsOf(node)) {
+                    Integer pos = positions.get(next);
+                    if (pos != null) {
+                        worklist.set(pos);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Meets the facts flowing into given node, and applies the node transfer.
+     *
+     * @return true if the transfer changed the out (in) fact of the node
+     * for forward (backward) analysis, otherwise false.
+     */
+    private boolean visit(CFG<Node> cfg, Node node,
+                          DataflowResult<Node, Fact> result, boolean forward) {
+        if (forward ? cfg.isEntry(node) : cfg.isExit(node)) {
+            return false;
+        }
+        countNodeVisit();
+        if (forward) {
+            for (Node pred : cfg.getPredsOf(node)) {
+                meetInto(result.getOutFact(pred), result.getInFact(node));
+            }
+        } else {
+            for (Node succ : cfg.getSuccsOf(node)) {
+                meetInto(result.getInFact(succ), result.getOutFact(node));
+            }
+        }
+        return transferNode(node, result.getInFact(node), result.getOutFact(node));
+    }
+}
@@ -24,7 +24,22 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -37,6 +52,28 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    /**
+     * Number of nodes visited (i.e., removed from work-list or swept)
+     * by this solver, accumulated over all solved CFGs.
+     */
+    private final LongAdder nodeVisits = new LongAdder();
+
+    /**
+     * Statistics of this solver, or null if the statistics are disabled.
+     */
+    private SolverStats stats;
+
+    /**
+     * Metrics of the CFG being solved by each thread,
+     * only used when the statistics are enabled.
+     */
+    private final ThreadLocal<SolverStats.Metrics> metrics = new ThreadLocal<>();
+
+    /**
+     * Whether the facts of the results are interned, see {@link #internFacts}.
+     */
+    private boolean intern;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
         this.analysis = analysis;
     }
@@ -49,6 +86,56 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis,
+     * which is configured by the options of the analysis.
+     * Supported options:
+     * <ul>
+     *     <li>solver: worklist (default) | scc | iterative | block, the kind
+     *     of solver, see {@link WorkListSolver}, {@link SCCSolver},
+     *     {@link IterativeSolver} and {@link BlockSolver}</li>
+     *     <li>worklist: fifo (default) | rpo, the order in which
+     *     the work-list solver processes nodes</li>
+     *     <li>intern: false (default) | true, whether to intern the facts
+     *     of the results, see {@link #internFacts}</li>
+     * </ul>
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options) {
+        return makeSolver(analysis, options, null);
+    }
+
+    /**
+     * Static factory method to create a new solver for given analysis,
+     * which is configured by the options of the analysis, and records
+     * its metrics in given statistics.
+     *
+     * @param stats the statistics of the analysis, or null if disabled
+     * @see SolverStats
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options,
+            SolverStats stats) {
+        Solver<Node, Fact> solver = newSolver(analysis, options);
+        solver.stats = stats;
+        solver.intern = options.getBooleanOrDefault("intern", false);
+        return solver;
+    }
+
+    private static <Node, Fact> Solver<Node, Fact> newSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options) {
+        String solver = options.getString("solver");
+        if ("scc".equals(solver)) {
+            return new SCCSolver<>(analysis);
+        } else if ("iterative".equals(solver)) {
+            return new IterativeSolver<>(analysis);
+        } else if ("block".equals(solver)) {
+            return new BlockSolver<>(analysis);
+        }
+        boolean rpo = "rpo".equals(options.getString("worklist"));
+        return new WorkListSolver<>(analysis, rpo);
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
@@ -56,18 +143,177 @@ public abstract class Solver<Node, Fact> {
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        SolverStats.Metrics m = startMetrics(cfg);
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
+        if (intern) {
+            internFacts(cfg, result);
+        }
+        stopMetrics(m);
         return result;
     }
 
+    /**
+     * Re-solves the data-flow problem incrementally after some nodes of
+     * given CFG changed, e.g., statements edited in place or replaced by
+     * new statements at the same indexes.
+     * <p>
+     * The facts of the nodes affected by the changes, i.e., the changed nodes
+     * and the nodes reachable from them along the flow direction (successors
+     * for forward analyses, predecessors for backward analyses), are reset,
+     * and the work-list is seeded with only these nodes. The facts of the
+     * other nodes do not depend on the changes and are kept, so the result
+     * is the same fixed point as {@link #solve(CFG)} on given CFG.
+     * <p>
+     * The changed nodes must cover all nodes whose data-flow equations
+     * changed, i.e., nodes whose transfer functions changed, and nodes
+     * whose incoming (for forward analyses) or outgoing (for backward
+     * analyses) edges changed. If nodes are added to or removed from the CFG
+     * (so that the statements are re-indexed), solve it from scratch instead.
+     *
+     * @param cfg      the CFG after the changes
+     * @param previous the result of the CFG before the changes, which is
+     *                 updated in place
+     * @param changed  the changed nodes
+     * @return the (updated) previous result
+     */
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg,
+            DataflowResult<Node, Fact> previous, Collection<Node> changed) {
+        SolverStats.Metrics m = startMetrics(cfg);
+        boolean forward = analysis.isForward();
+        Set<Node> affected = getAffectedNodes(cfg, changed, forward);
+        Node boundary = forward ? cfg.getEntry() : cfg.getExit();
+        for (Node node : affected) {
+            if (node.equals(boundary)) {
+                previous.setInFact(node, analysis.newBoundaryFact(cfg));
+                previous.setOutFact(node, analysis.newBoundaryFact(cfg));
+            } else {
+                previous.setInFact(node, analysis.newInitialFact());
+                previous.setOutFact(node, analysis.newInitialFact());
+            }
+        }
+        // the facts of the other nodes may be interned, i.e., shared by
+        // several nodes, thus they are only read below; this is checked
+        // when assertions are enabled
+        Set<Fact> kept = null;
+        assert (kept = getKeptFacts(cfg, previous, affected)) != null;
+        Queue<Node> workList = new PriorityWorkList<>(cfg, forward);
+        for (Node node : affected) {
+            if (!node.equals(boundary)) {
+                workList.add(node);
+            }
+        }
+        updateWorkListSize(workList.size());
+        Node work;
+        while ((work = workList.poll()) != null) {
+            countNodeVisit();
+            Fact in = previous.getInFact(work);
+            Fact out = previous.getOutFact(work);
+            assert !kept.contains(in) && !kept.contains(out) :
+                    "Kept fact of " + work + " is modified in place";
+            if (forward) {
+                for (Node pred : cfg.getPredsOf(work)) {
+                    meetInto(previous.getOutFact(pred), in);
+                }
+            } else {
+                for (Node succ : cfg.getSuccsOf(work)) {
+                    meetInto(previous.getInFact(succ), out);
+                }
+            }
+            if (transferNode(work, in, out)) {
+                workList.addAll(forward ?
+                        cfg.getSuccsOf(work) : cfg.getPredsOf(work));
+                updateWorkListSize(workList.size());
+            }
+        }
+        if (intern) {
+            internFacts(cfg, previous);
+        }
+        stopMetrics(m);
+        return previous;
+    }
+
+    /**
+     * Interns the facts of given result, i.e., replaces each fact by
+     * the first equal fact in the result, so that equal facts (which are
+     * common, e.g., the IN and OUT facts of nodes which do not change
+     * the facts) share the same storage.
+     * <p>
+     * The solvers update the facts in place until the fixed point is
+     * reached, thus the facts are interned after solving, and the interned
+     * result is read-only: the clients must not modify its facts in place,
+     * but set a modified copy to the result instead. The incremental
+     * {@link #solve(CFG, DataflowResult, Collection)} does so by resetting
+     * the affected nodes to new facts, and asserts that it never modifies
+     * the kept facts.
+     * Solvers which store facts of only some nodes override this method.
+     */
+    protected void internFacts(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        Map<Fact, Fact> canonical = Maps.newMap();
+        int facts = 0;
+        for (Node node : cfg) {
+            Fact in = result.getInFact(node);
+            if (in != null) {
+                result.setInFact(node, canonical.computeIfAbsent(in, f -> f));
+                ++facts;
+            }
+            Fact out = result.getOutFact(node);
+            if (out != null) {
+                result.setOutFact(node, canonical.computeIfAbsent(out, f -> f));
+                ++facts;
+            }
+        }
+        updateSharing(facts, canonical.size());
+    }
+
+    /**
+     * @return the identity set of the facts of the nodes which are not
+     * affected by the changes, i.e., the facts kept in given result.
+     */
+    private static <Node, Fact> Set<Fact> getKeptFacts(
+            CFG<Node> cfg, DataflowResult<Node, Fact> result, Set<Node> affected) {
+        Set<Fact> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Node node : cfg) {
+            if (!affected.contains(node)) {
+                kept.add(result.getInFact(node));
+                kept.add(result.getOutFact(node));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * @return given changed nodes and the nodes reachable from them
+     * along the flow direction.
+     */
+    private static <Node> Set<Node> getAffectedNodes(
+            CFG<Node> cfg, Collection<Node> changed, boolean forward) {
+        Set<Node> affected = Sets.newSet();
+        Deque<Node> stack = new ArrayDeque<>();
+        for (Node node : changed) {
+            if (affected.add(node)) {
+                stack.push(node);
+            }
+        }
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            for (Node next : forward ?
+                    cfg.getSuccsOf(node) : cfg.getPredsOf(node)) {
+                if (affected.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return affected;
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +322,19 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * Creates an empty data-flow result for given CFG. For CFGs of
+     * {@link Stmt}s, whose nodes are densely indexed (including the entry
+     * and exit nodes), the facts are stored in arrays indexed by the nodes.
+     * Solvers which store facts in other ways override this method.
+     */
+    protected DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Stmt) {
+            return new IndexedDataflowResult<>(cfg);
+        }
+        return new DataflowResult<>();
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me DONE
         for (Node node : cfg) {
@@ -116,4 +375,90 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Starts recording the metrics of given CFG in the current thread.
+     *
+     * @return the metrics, or null if the statistics are disabled.
+     */
+    private SolverStats.Metrics startMetrics(CFG<Node> cfg) {
+        if (stats == null) {
+            return null;
+        }
+        SolverStats.Metrics m = stats.newMetrics(cfg.getIR().getMethod());
+        metrics.set(m);
+        m.start();
+        return m;
+    }
+
+    private void stopMetrics(SolverStats.Metrics m) {
+        if (m != null) {
+            m.stop();
+            metrics.remove();
+        }
+    }
+
+    /**
+     * Meets fact into target by the analysis, see
+     * {@link DataflowAnalysis#meetInto(Object, Object)}.
+     */
+    protected void meetInto(Fact fact, Fact target) {
+        if (stats != null) {
+            metrics.get().countMeet();
+        }
+        analysis.meetInto(fact, target);
+    }
+
+    /**
+     * Applies the node transfer of the analysis, see
+     * {@link DataflowAnalysis#transferNode(Object, Object, Object)}.
+     */
+    protected boolean transferNode(Node node, Fact in, Fact out) {
+        boolean changed = analysis.transferNode(node, in, out);
+        if (stats != null) {
+            SolverStats.Metrics m = metrics.get();
+            m.countTransfer();
+            // records the sizes on every transfer, as a large fact
+            // may be produced once and never changed again
+            m.updateFactSize(in);
+            m.updateFactSize(out);
+        }
+        return changed;
+    }
+
+    /**
+     * Records that a node is visited by this solver.
+     */
+    protected void countNodeVisit() {
+        nodeVisits.increment();
+        if (stats != null) {
+            metrics.get().countNodeVisit();
+        }
+    }
+
+    /**
+     * Records the current size of the work-list of this solver.
+     */
+    protected void updateWorkListSize(int size) {
+        if (stats != null) {
+            metrics.get().updateWorkListSize(size);
+        }
+    }
+
+    /**
+     * Records that given number of facts are interned into
+     * given number of distinct facts.
+     */
+    protected void updateSharing(int facts, int distinctFacts) {
+        if (stats != null) {
+            metrics.get().updateSharing(facts, distinctFacts);
+        }
+    }
+
+    /**
+     * @return the number of nodes visited by this solver so far.
+     */
+    public long getNodeVisits() {
+        return nodeVisits.sum();
+    }
 }
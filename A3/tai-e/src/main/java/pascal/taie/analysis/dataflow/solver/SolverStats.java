@@ -0,0 +1,301 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.PersistentMapFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
+import pascal.taie.util.AnalysisException;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects the metrics of the solvers of an analysis, broken down
+ * per solved method. The statistics are enabled by option "stats"
+ * of the analysis:
+ * <ul>
+ *     <li>stats: json | csv, the format of the dumped metrics;</li>
+ *     <li>stats-file: the file to which the metrics are dumped,
+ *     by default, {@code <id>-stats.<format>} in the output directory.</li>
+ * </ul>
+ * If the option is absent, no statistics is created, and the solvers
+ * skip all counting.
+ */
+public class SolverStats {
+
+    private final String id;
+
+    private final String format;
+
+    private final String file;
+
+    private final List<Metrics> metrics = new ArrayList<>();
+
+    private SolverStats(String id, String format, String file) {
+        this.id = id;
+        this.format = format;
+        this.file = file;
+    }
+
+    /**
+     * @return the statistics of the analysis of given ID and options,
+     * or null if the statistics are disabled.
+     */
+    public static SolverStats of(String id, AnalysisOptions options) {
+        String format = options.getString("stats");
+        if (format == null) {
+            return null;
+        }
+        if (!format.equals("json") && !format.equals("csv")) {
+            throw new ConfigException("Unknown format of stats: " + format);
+        }
+        return new SolverStats(id, format, options.getString("stats-file"));
+    }
+
+    /**
+     * Creates and registers the metrics of given method.
+     * Called by the solvers.
+     */
+    public synchronized Metrics newMetrics(Object method) {
+        Metrics m = new Metrics(String.valueOf(method));
+        metrics.add(m);
+        return m;
+    }
+
+    /**
+     * @return the metrics collected so far, sorted by method.
+     */
+    public synchronized List<Metrics> getMetrics() {
+        List<Metrics> result = new ArrayList<>(metrics);
+        result.sort(Comparator.comparing(Metrics::getMethod));
+        return result;
+    }
+
+    /**
+     * Dumps the metrics collected so far to the stats file.
+     */
+    public void dump() {
+        File output = file != null ? new File(file) :
+                new File(Configs.getOutputDir(), id + "-stats." + format);
+        try (PrintStream out = new PrintStream(output)) {
+            if (format.equals("json")) {
+                dumpJson(out);
+            } else {
+                dumpCsv(out);
+            }
+        } catch (FileNotFoundException e) {
+            throw new AnalysisException("Failed to open stats file", e);
+        }
+    }
+
+    private void dumpJson(PrintStream out) {
+        out.println("{");
+        out.printf("  \"analysis\": \"%s\",%n", escape(id));
+        out.println("  \"methods\": [");
+        List<Metrics> list = getMetrics();
+        for (int i = 0; i < list.size(); ++i) {
+            Metrics m = list.get(i);
+            out.printf("    {\"method\": \"%s\", \"nodeVisits\": %d, " +
+                            "\"transferCalls\": %d, \"meetCalls\": %d, " +
+                            "\"maxWorkListSize\": %d, \"maxFactSize\": %d, " +
+                            "\"wallTimeNanos\": %d, \"facts\": %d, " +
+                            "\"distinctFacts\": %d, \"sharingRatio\": %.4f}%s%n",
+                    escape(m.method), m.nodeVisits, m.transferCalls,
+                    m.meetCalls, m.maxWorkListSize, m.maxFactSize,
+                    m.wallTime, m.facts, m.distinctFacts,
+                    m.getSharingRatio(), i < list.size() - 1 ? "," : "");
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    private void dumpCsv(PrintStream out) {
+        out.println("method,nodeVisits,transferCalls,meetCalls," +
+                "maxWorkListSize,maxFactSize,wallTimeNanos," +
+                "facts,distinctFacts,sharingRatio");
+        for (Metrics m : getMetrics()) {
+            out.printf("\"%s\",%d,%d,%d,%d,%d,%d,%d,%d,%.4f%n",
+                    m.method.replace("\"", "\"\""), m.nodeVisits,
+                    m.transferCalls, m.meetCalls, m.maxWorkListSize,
+                    m.maxFactSize, m.wallTime, m.facts, m.distinctFacts,
+                    m.getSharingRatio());
+        }
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * @return the number of elements (or mappings) of given fact,
+     * or -1 if the kind of the fact is unknown.
+     */
+    static int sizeOf(Object fact) {
+        if (fact instanceof IndexedBitSetFact<?> bits) {
+            return bits.size();
+        } else if (fact instanceof PersistentMapFact<?, ?> map) {
+            return map.size();
+        } else if (fact instanceof SetFact<?> set) {
+            return set.size();
+        } else if (fact instanceof MapFact<?, ?> map) {
+            return map.keySet().size();
+        }
+        return -1;
+    }
+
+    /**
+     * Metrics of the solver on a method. The metrics are updated by
+     * the solvers, and each metrics is updated by only one thread at a time.
+     */
+    public static class Metrics {
+
+        private final String method;
+
+        private long nodeVisits;
+
+        private long transferCalls;
+
+        private long meetCalls;
+
+        private int maxWorkListSize;
+
+        private int maxFactSize = -1;
+
+        private long wallTime;
+
+        private long startTime;
+
+        private int facts;
+
+        private int distinctFacts;
+
+        private Metrics(String method) {
+            this.method = method;
+        }
+
+        public void countNodeVisit() {
+            ++nodeVisits;
+        }
+
+        public void countTransfer() {
+            ++transferCalls;
+        }
+
+        public void countMeet() {
+            ++meetCalls;
+        }
+
+        public void updateWorkListSize(int size) {
+            maxWorkListSize = Math.max(maxWorkListSize, size);
+        }
+
+        public void updateFactSize(Object fact) {
+            maxFactSize = Math.max(maxFactSize, sizeOf(fact));
+        }
+
+        /**
+         * Records that the solver interned given number of facts
+         * into given number of distinct facts.
+         */
+        public void updateSharing(int facts, int distinctFacts) {
+            this.facts = facts;
+            this.distinctFacts = distinctFacts;
+        }
+
+        public void start() {
+            startTime = System.nanoTime();
+        }
+
+        public void stop() {
+            wallTime += System.nanoTime() - startTime;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getNodeVisits() {
+            return nodeVisits;
+        }
+
+        public long getTransferCalls() {
+            return transferCalls;
+        }
+
+        public long getMeetCalls() {
+            return meetCalls;
+        }
+
+        public int getMaxWorkListSize() {
+            return maxWorkListSize;
+        }
+
+        /**
+         * @return the maximum size of the IN and OUT facts of the transfers,
+         * or -1 if the size of the facts is unknown.
+         */
+        public int getMaxFactSize() {
+            return maxFactSize;
+        }
+
+        /**
+         * @return the wall time of the solver in nanoseconds.
+         */
+        public long getWallTime() {
+            return wallTime;
+        }
+
+        /**
+         * @return the number of facts (IN and OUT facts of all nodes)
+         * in the result, or 0 if the facts are not interned.
+         */
+        public int getFacts() {
+            return facts;
+        }
+
+        /**
+         * @return the number of distinct facts in the result,
+         * or 0 if the facts are not interned.
+         */
+        public int getDistinctFacts() {
+            return distinctFacts;
+        }
+
+        /**
+         * @return the fraction of the facts in the result that share
+         * storage with an equal fact, i.e., (facts - distinct facts) / facts.
+         */
+        public double getSharingRatio() {
+            return facts == 0 ? 0 : (double) (facts - distinctFacts) / facts;
+        }
+    }
+}
@@ -27,31 +27,50 @@ import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
 import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Queue;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
+    /**
+     * If true, the work-list removes nodes in reverse postorder,
+     * otherwise in FIFO order.
+     */
+    private final boolean priority;
+
     WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        this(analysis, false);
+    }
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, boolean priority) {
         super(analysis);
+        this.priority = priority;
+    }
+
+    private Queue<Node> newWorkList(CFG<Node> cfg) {
+        return priority ?
+                new PriorityWorkList<>(cfg, analysis.isForward()) :
+                new ArrayDeque<>();
     }
 
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me DONE
-        Deque<Node> worklist = new ArrayDeque<>();
+        Queue<Node> worklist = newWorkList(cfg);
         for (Node n : cfg) {
             if (!cfg.isEntry(n)) {
                 worklist.add(n);
             }
         }
-        while (!worklist.isEmpty()) {
-            Node work = worklist.getFirst();
-            worklist.removeFirst();
+        updateWorkListSize(worklist.size());
+        Node work;
+        while ((work = worklist.poll()) != null) {
+            countNodeVisit();
             for (Node pred : cfg.getPredsOf(work)) {
-                analysis.meetInto(result.getOutFact(pred), result.getInFact(work));
+                meetInto(result.getOutFact(pred), result.getInFact(work));
             }
-            if (analysis.transferNode(work, result.getInFact(work), result.getOutFact(work))) {
+            if (transferNode(work, result.getInFact(work), result.getOutFact(work))) {
                 worklist.addAll(cfg.getSuccsOf(work));
+                updateWorkListSize(worklist.size());
             }
         }
     }
@@ -59,20 +78,22 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me DONE
-        Deque<Node> worklist = new ArrayDeque<>();
+        Queue<Node> worklist = newWorkList(cfg);
         for (Node n : cfg) {
             if (!cfg.isExit(n)) {
                 worklist.add(n);
             }
         }
-        while (!worklist.isEmpty()) {
-            Node work = worklist.getFirst();
-            worklist.removeFirst();
+        updateWorkListSize(worklist.size());
+        Node work;
+        while ((work = worklist.poll()) != null) {
+            countNodeVisit();
             for (Node succ : cfg.getSuccsOf(work)) {
-                analysis.meetInto(result.getInFact(succ), result.getOutFact(work));
+                meetInto(result.getInFact(succ), result.getOutFact(work));
             }
-            if (analysis.transferNode(work, result.getInFact(work), result.getOutFact(work))) {
+            if (transferNode(work, result.getInFact(work), result.getOutFact(work))) {
                 worklist.addAll(cfg.getPredsOf(work));
+                updateWorkListSize(worklist.size());
             }
         }
     }
@@ -0,0 +1,132 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A definition of a variable in SSA form, i.e., a version of the variable.
+ * Each definition is made by one of:
+ * <ul>
+ *     <li>the entry of the CFG ({@link Kind#ENTRY}), which gives the initial
+ *     value of the variable, e.g., the argument of a parameter;</li>
+ *     <li>a statement which assigns the variable ({@link Kind#STMT});</li>
+ *     <li>a {@link Phi} ({@link Kind#PHI}).</li>
+ * </ul>
+ * The uses of the definition, i.e., the statements and phis where it is
+ * the reaching definition of the variable, are recorded in the definition.
+ */
+public class Def {
+
+    public enum Kind {
+        ENTRY, STMT, PHI
+    }
+
+    private final Var var;
+
+    private final int version;
+
+    private final Kind kind;
+
+    /**
+     * The defining statement, or the statement at whose entry the phi is
+     * placed, or the entry node of the CFG.
+     */
+    private final Stmt stmt;
+
+    private final Phi phi;
+
+    private final List<Stmt> uses = new ArrayList<>();
+
+    private final List<Phi> phiUses = new ArrayList<>();
+
+    Def(Var var, int version, Kind kind, Stmt stmt, Phi phi) {
+        this.var = var;
+        this.version = version;
+        this.kind = kind;
+        this.stmt = stmt;
+        this.phi = phi;
+    }
+
+    public Var getVar() {
+        return var;
+    }
+
+    /**
+     * @return the version number of this definition, which is unique among
+     * the definitions of the same variable. Version 0 is the entry definition.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the statement of this definition, see {@link #stmt}.
+     */
+    public Stmt getStmt() {
+        return stmt;
+    }
+
+    /**
+     * @return the phi of this definition, or null if it is not a phi.
+     */
+    public Phi getPhi() {
+        return phi;
+    }
+
+    /**
+     * @return the statements which use this definition.
+     */
+    public List<Stmt> getUses() {
+        return Collections.unmodifiableList(uses);
+    }
+
+    /**
+     * @return the phis which have this definition as an operand.
+     */
+    public List<Phi> getPhiUses() {
+        return Collections.unmodifiableList(phiUses);
+    }
+
+    void addUse(Stmt stmt) {
+        uses.add(stmt);
+    }
+
+    void addPhiUse(Phi phi) {
+        phiUses.add(phi);
+    }
+
+    @Override
+    public String toString() {
+        return var + "#" + version;
+    }
+}
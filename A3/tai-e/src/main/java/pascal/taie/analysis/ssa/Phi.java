@@ -0,0 +1,106 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A phi function, which is placed at the entry of a statement with
+ * multiple predecessors, and merges the definitions of a variable
+ * flowing from the predecessors.
+ */
+public class Phi {
+
+    private final Var var;
+
+    /**
+     * The statement at whose entry this phi is placed.
+     */
+    private final Stmt stmt;
+
+    private Def def;
+
+    private final List<Stmt> preds = new ArrayList<>();
+
+    private final List<Def> operands = new ArrayList<>();
+
+    Phi(Var var, Stmt stmt) {
+        this.var = var;
+        this.stmt = stmt;
+    }
+
+    public Var getVar() {
+        return var;
+    }
+
+    /**
+     * @return the statement at whose entry this phi is placed.
+     */
+    public Stmt getStmt() {
+        return stmt;
+    }
+
+    /**
+     * @return the definition made by this phi.
+     */
+    public Def getDef() {
+        return def;
+    }
+
+    /**
+     * @return the (reachable) predecessors of {@link #getStmt()},
+     * each of which corresponds to the operand at the same position.
+     */
+    public List<Stmt> getPreds() {
+        return Collections.unmodifiableList(preds);
+    }
+
+    /**
+     * @return the definitions flowing from the predecessors.
+     */
+    public List<Def> getOperands() {
+        return Collections.unmodifiableList(operands);
+    }
+
+    void setDef(Def def) {
+        this.def = def;
+    }
+
+    void addOperand(Stmt pred, Def operand) {
+        preds.add(pred);
+        operands.add(operand);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", def + " = phi(", ")");
+        operands.forEach(operand -> joiner.add(operand.toString()));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.TwoKeyMap;
+import pascal.taie.util.graph.DominatorTree;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SSA view of the IR of a method, built by {@link SSABuilder}.
+ * The IR itself is not changed, instead, this view gives the phis placed
+ * at the statements, and the def-use chains between the statements and
+ * phis: for each statement and each variable used by it, the reaching
+ * definition ({@link Def}) of the variable, and for each definition,
+ * the statements and phis which use it. All lookups take O(1) time.
+ * <p>
+ * The statements unreachable from the entry of the CFG are not in SSA form,
+ * i.e., they have no phis, definitions, or reaching definitions.
+ */
+public class SSA {
+
+    private final CFG<Stmt> cfg;
+
+    private final DominatorTree<Stmt> domTree;
+
+    private final Map<Stmt, List<Phi>> phis;
+
+    private final Map<Stmt, Def> stmtDefs;
+
+    private final TwoKeyMap<Stmt, Var, Def> reachingDefs;
+
+    private final List<Def> defs;
+
+    SSA(CFG<Stmt> cfg, DominatorTree<Stmt> domTree, Map<Stmt, List<Phi>> phis,
+        Map<Stmt, Def> stmtDefs, TwoKeyMap<Stmt, Var, Def> reachingDefs,
+        List<Def> defs) {
+        this.cfg = cfg;
+        this.domTree = domTree;
+        this.phis = phis;
+        this.stmtDefs = stmtDefs;
+        this.reachingDefs = reachingDefs;
+        this.defs = Collections.unmodifiableList(defs);
+    }
+
+    public CFG<Stmt> getCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the dominator tree of the CFG rooted at its entry.
+     */
+    public DominatorTree<Stmt> getDominatorTree() {
+        return domTree;
+    }
+
+    /**
+     * @return the phis placed at the entry of given statement.
+     */
+    public List<Phi> getPhis(Stmt stmt) {
+        return phis.getOrDefault(stmt, List.of());
+    }
+
+    /**
+     * @return the definition made by given statement, or null if
+     * the statement does not assign a variable.
+     */
+    public Def getDef(Stmt stmt) {
+        return stmtDefs.get(stmt);
+    }
+
+    /**
+     * @return the definition of given variable which reaches given
+     * statement, or null if the statement does not use the variable.
+     */
+    public Def getReachingDef(Stmt stmt, Var var) {
+        return reachingDefs.get(stmt, var);
+    }
+
+    /**
+     * @return all definitions, including those of the phis and the entry.
+     */
+    public List<Def> getDefs() {
+        return defs;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+import pascal.taie.util.graph.DominatorTree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the {@link SSA} view of the IR from its CFG by the classic
+ * algorithm of Cytron et al.:
+ * <ol>
+ *     <li>computes the dominator tree of the CFG by the Lengauer-Tarjan
+ *     algorithm, and the dominance frontiers;</li>
+ *     <li>places a phi for each variable at the iterated dominance frontier
+ *     of the statements which define the variable, and of the successors
+ *     reached from them only by exceptional edges;</li>
+ *     <li>renames the variables, i.e., finds the reaching definition of
+ *     each use, by a preorder walk of the dominator tree.</li>
+ * </ol>
+ * The result is stored in the IR, like the CFG.
+ */
+public class SSABuilder extends MethodAnalysis {
+
+    public static final String ID = "ssa";
+
+    public SSABuilder(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public SSA analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        return new Builder(cfg).build();
+    }
+
+    private static class Builder {
+
+        private final CFG<Stmt> cfg;
+
+        private final List<Var> vars;
+
+        private final DominatorTree<Stmt> domTree;
+
+        private final Map<Stmt, List<Phi>> phis = Maps.newMap();
+
+        private final Map<Stmt, Def> stmtDefs = Maps.newMap();
+
+        private final TwoKeyMap<Stmt, Var, Def> reachingDefs = Maps.newTwoKeyMap();
+
+        private final List<Def> defs = new ArrayList<>();
+
+        /**
+         * Stacks of the current definitions of the variables during
+         * renaming, indexed by the variables.
+         */
+        private final List<Deque<Def>> stacks;
+
+        /**
+         * Entry definitions of the variables, created on demand.
+         */
+        private final Def[] entryDefs;
+
+        /**
+         * Next version number of each variable.
+         */
+        private final int[] versions;
+
+        private Builder(CFG<Stmt> cfg) {
+            this.cfg = cfg;
+            this.vars = cfg.getIR().getVars();
+            this.domTree = new DominatorTree<>(cfg, cfg.getEntry());
+            this.stacks = new ArrayList<>(vars.size());
+            for (int i = 0; i < vars.size(); ++i) {
+                stacks.add(new ArrayDeque<>());
+            }
+            this.entryDefs = new Def[vars.size()];
+            this.versions = new int[vars.size()];
+            Arrays.fill(versions, 1); // version 0 is for entry definitions
+        }
+
+        private SSA build() {
+            placePhis();
+            rename();
+            return new SSA(cfg, domTree, phis, stmtDefs, reachingDefs, defs);
+        }
+
+        /**
+         * Places the phis at the iterated dominance frontiers of
+         * the definitions of each variable.
+         * <p>
+         * An exception thrown by a statement happens before the statement
+         * assigns its variable, thus a successor reached from a statement
+         * only by exceptional edges (e.g., a handler) sees the definition
+         * before the statement. Such a successor may be dominated by the
+         * statement, so it also gets a phi of the variable, which merges
+         * the definitions before the statement, and hides the definition
+         * of the statement in the subtree of the successor.
+         */
+        private void placePhis() {
+            Map<Var, List<Stmt>> defSites = Maps.newMap();
+            for (Stmt stmt : cfg) {
+                Var def = getDefVar(stmt);
+                if (def != null && domTree.isReachable(stmt)) {
+                    defSites.computeIfAbsent(def, v -> new ArrayList<>()).add(stmt);
+                }
+            }
+            // the statements which already have a phi (or have been added
+            // to the work-list) for the variable being processed
+            Map<Stmt, Var> hasPhi = Maps.newMap();
+            Map<Stmt, Var> added = Maps.newMap();
+            Deque<Stmt> workList = new ArrayDeque<>();
+            defSites.forEach((var, sites) -> {
+                for (Stmt site : sites) {
+                    added.put(site, var);
+                    workList.add(site);
+                }
+                for (Stmt site : sites) {
+                    for (Stmt succ : cfg.getSuccsOf(site)) {
+                        if (isExceptionalOnly(site, succ)) {
+                            placePhi(succ, var, hasPhi, added, workList);
+                        }
+                    }
+                }
+                while (!workList.isEmpty()) {
+                    Stmt stmt = workList.poll();
+                    for (Stmt frontier : domTree.getDominanceFrontier(stmt)) {
+                        placePhi(frontier, var, hasPhi, added, workList);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Places a phi of given variable at given statement if it has none,
+         * and adds the statement to the work-list as a new definition.
+         */
+        private void placePhi(Stmt stmt, Var var, Map<Stmt, Var> hasPhi,
+                              Map<Stmt, Var> added, Deque<Stmt> workList) {
+            if (hasPhi.get(stmt) != var) {
+                hasPhi.put(stmt, var);
+                phis.computeIfAbsent(stmt, s -> new ArrayList<>())
+                        .add(new Phi(var, stmt));
+                if (added.get(stmt) != var) {
+                    added.put(stmt, var);
+                    workList.add(stmt);
+                }
+            }
+        }
+
+        /**
+         * Renames the variables by a preorder walk of the dominator tree,
+         * which is iterative to handle deep dominator trees.
+         */
+        private void rename() {
+            // each frame is a statement to enter, or (as a negative marker)
+            // a statement to exit, whose pushed variables are then popped
+            Deque<Stmt> walk = new ArrayDeque<>();
+            Deque<List<Var>> pushed = new ArrayDeque<>();
+            Deque<Boolean> entering = new ArrayDeque<>();
+            walk.push(cfg.getEntry());
+            entering.push(true);
+            while (!walk.isEmpty()) {
+                Stmt stmt = walk.pop();
+                if (!entering.pop()) {
+                    for (Var var : pushed.pop()) {
+                        stacks.get(var.getIndex()).pop();
+                    }
+                    continue;
+                }
+                pushed.push(enter(stmt));
+                walk.push(stmt);
+                entering.push(false);
+                List<Stmt> children = domTree.getChildren(stmt);
+                for (int i = children.size() - 1; i >= 0; --i) {
+                    walk.push(children.get(i));
+                    entering.push(true);
+                }
+            }
+        }
+
+        /**
+         * Renames the phis and the variables of given statement,
+         * and fills the operands of the phis at its successors.
+         *
+         * @return the variables whose definitions are pushed.
+         */
+        private List<Var> enter(Stmt stmt) {
+            List<Var> pushed = new ArrayList<>();
+            for (Phi phi : phis.getOrDefault(stmt, List.of())) {
+                Def def = newDef(phi.getVar(), Def.Kind.PHI, stmt, phi);
+                phi.setDef(def);
+                push(def);
+                pushed.add(phi.getVar());
+            }
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var &&
+                        reachingDefs.get(stmt, var) == null) {
+                    Def def = currentDef(var);
+                    reachingDefs.put(stmt, var, def);
+                    def.addUse(stmt);
+                }
+            }
+            Var defVar = getDefVar(stmt);
+            // the definition of defVar reaching the entry of stmt (null for
+            // the entry definition), which flows along the exceptional edges,
+            // as an exception thrown by stmt happens before defVar is assigned
+            Def defBefore = null;
+            if (defVar != null) {
+                defBefore = stacks.get(defVar.getIndex()).peek();
+                Def def = newDef(defVar, Def.Kind.STMT, stmt, null);
+                stmtDefs.put(stmt, def);
+                push(def);
+                pushed.add(defVar);
+            }
+            for (Stmt succ : cfg.getSuccsOf(stmt)) {
+                List<Phi> succPhis = phis.getOrDefault(succ, List.of());
+                if (succPhis.isEmpty()) {
+                    continue;
+                }
+                boolean exceptional = isExceptionalOnly(stmt, succ);
+                for (Phi phi : succPhis) {
+                    Def operand;
+                    if (exceptional && phi.getVar() == defVar) {
+                        operand = defBefore != null ? defBefore : entryDef(defVar);
+                    } else {
+                        operand = currentDef(phi.getVar());
+                    }
+                    phi.addOperand(stmt, operand);
+                    operand.addPhiUse(phi);
+                }
+            }
+            return pushed;
+        }
+
+        /**
+         * @return {@code true} if all edges from given statement to given
+         * successor are exceptional.
+         */
+        private boolean isExceptionalOnly(Stmt stmt, Stmt succ) {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                if (edge.getTarget() == succ && !edge.isExceptional()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Var getDefVar(Stmt stmt) {
+            return stmt.getDef().orElse(null) instanceof Var var ? var : null;
+        }
+
+        private Def newDef(Var var, Def.Kind kind, Stmt stmt, Phi phi) {
+            Def def = new Def(var, versions[var.getIndex()]++, kind, stmt, phi);
+            defs.add(def);
+            return def;
+        }
+
+        private void push(Def def) {
+            stacks.get(def.getVar().getIndex()).push(def);
+        }
+
+        /**
+         * @return the current definition of given variable,
+         * or its entry definition if none.
+         */
+        private Def currentDef(Var var) {
+            Def def = stacks.get(var.getIndex()).peek();
+            return def != null ? def : entryDef(var);
+        }
+
+        /**
+         * @return the entry definition of given variable.
+         */
+        private Def entryDef(Var var) {
+            Def def = entryDefs[var.getIndex()];
+            if (def == null) {
+                def = new Def(var, 0, Def.Kind.ENTRY, cfg.getEntry(), null);
+                entryDefs[var.getIndex()] = def;
+                defs.add(def);
+            }
+            return def;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Base implementation of {@link ResultHolder}.
+ * <p>
+ * Results may be stored and retrieved by multiple threads, e.g., when
+ * the method analyses run in parallel, so all accesses to the results
+ * are synchronized on this holder. Most holders keep only a few results,
+ * thus a small hybrid map guarded by the monitor of the holder costs
+ * much less memory than a concurrent map.
+ */
+public abstract class AbstractResultHolder implements ResultHolder {
+
+    private final Map<String, Object> results = Maps.newHybridMap();
+
+    @Override
+    public synchronized <R> void storeResult(String key, R result) {
+        results.put(key, result);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <R> R getResult(String key) {
+        return (R) results.get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <R> R getResult(String key, R defaultResult) {
+        return (R) results.getOrDefault(key, defaultResult);
+    }
+
+    /**
+     * If the result of given key is absent, computes it by given supplier
+     * and stores it. The supplier is called without holding the lock,
+     * so that it can access other results of this holder; if multiple
+     * threads compute the same result simultaneously, the first stored
+     * one wins and is returned to all of them.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key, Supplier<R> supplier) {
+        R result = getResult(key);
+        if (result == null) {
+            R newResult = supplier.get();
+            synchronized (this) {
+                result = (R) results.putIfAbsent(key, newResult);
+                if (result == null) {
+                    result = newResult;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a snapshot of the keys of the results in this holder.
+     */
+    @Override
+    public synchronized Collection<String> getKeys() {
+        return List.copyOf(results.keySet());
+    }
+
+    @Override
+    public synchronized void clearResult(String key) {
+        results.remove(key);
+    }
+
+    @Override
+    public synchronized void clearAll() {
+        results.clear();
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dominator tree of the nodes reachable from a root node of a graph,
+ * computed by the Lengauer-Tarjan algorithm (with path compression),
+ * which runs in O(E log V) time. All traversals are iterative, so that
+ * huge graphs do not overflow the call stack.
+ * <p>
+ * After construction, {@link #dominates(Object, Object)} is answered in
+ * O(1) time by the preorder intervals of the nodes in the dominator tree.
+ * The dominance frontiers are computed on the first query.
+ *
+ * @param <N> type of nodes
+ */
+public class DominatorTree<N> {
+
+    private final Graph<N> graph;
+
+    /**
+     * Reachable nodes in DFS preorder, i.e., nodes[i] is numbered i.
+     */
+    private final List<N> nodes;
+
+    /**
+     * Maps each reachable node to its DFS preorder number.
+     */
+    private final Map<N, Integer> numbers;
+
+    /**
+     * DFS number of the immediate dominator of each node, or -1 for the root.
+     */
+    private final int[] idom;
+
+    /**
+     * Children of each node in the dominator tree.
+     */
+    private final int[][] children;
+
+    /**
+     * Preorder interval [pre, post) of each node in the dominator tree,
+     * i.e., a dominates b iff pre[a] <= pre[b] < post[a].
+     */
+    private final int[] pre;
+
+    private final int[] post;
+
+    private List<Set<N>> frontiers;
+
+    public DominatorTree(Graph<N> graph, N root) {
+        this.graph = graph;
+        this.nodes = new ArrayList<>();
+        this.numbers = Maps.newMap();
+        int[] parent = depthFirstSearch(root);
+        int n = nodes.size();
+        this.idom = computeIdoms(parent);
+        this.children = new int[n][];
+        int[] childCount = new int[n];
+        for (int v = 1; v < n; ++v) {
+            ++childCount[idom[v]];
+        }
+        for (int v = 0; v < n; ++v) {
+            children[v] = new int[childCount[v]];
+            childCount[v] = 0;
+        }
+        for (int v = 1; v < n; ++v) {
+            children[idom[v]][childCount[idom[v]]++] = v;
+        }
+        this.pre = new int[n];
+        this.post = new int[n];
+        numberTree();
+    }
+
+    /**
+     * Numbers the reachable nodes in DFS preorder.
+     *
+     * @return the DFS parent of each node (-1 for the root).
+     */
+    private int[] depthFirstSearch(N root) {
+        List<Integer> parents = new ArrayList<>();
+        List<Iterator<N>> stack = new ArrayList<>();
+        numbers.put(root, 0);
+        nodes.add(root);
+        parents.add(-1);
+        stack.add(graph.getSuccsOf(root).iterator());
+        List<Integer> path = new ArrayList<>();
+        path.add(0);
+        while (!stack.isEmpty()) {
+            Iterator<N> succs = stack.get(stack.size() - 1);
+            if (succs.hasNext()) {
+                N succ = succs.next();
+                if (!numbers.containsKey(succ)) {
+                    int number = nodes.size();
+                    numbers.put(succ, number);
+                    nodes.add(succ);
+                    parents.add(path.get(path.size() - 1));
+                    path.add(number);
+                    stack.add(graph.getSuccsOf(succ).iterator());
+                }
+            } else {
+                stack.remove(stack.size() - 1);
+                path.remove(path.size() - 1);
+            }
+        }
+        return parents.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The Lengauer-Tarjan algorithm on the DFS numbers.
+     */
+    private int[] computeIdoms(int[] parent) {
+        int n = nodes.size();
+        int[] semi = new int[n];
+        int[] label = new int[n];
+        int[] ancestor = new int[n];
+        int[] idom = new int[n];
+        // buckets as linked lists
+        int[] bucketHead = new int[n];
+        int[] bucketNext = new int[n];
+        for (int v = 0; v < n; ++v) {
+            semi[v] = v;
+            label[v] = v;
+        }
+        Arrays.fill(ancestor, -1);
+        Arrays.fill(bucketHead, -1);
+        idom[0] = -1;
+        int[] path = new int[n];
+        for (int w = n - 1; w > 0; --w) {
+            for (N pred : graph.getPredsOf(nodes.get(w))) {
+                Integer v = numbers.get(pred);
+                if (v != null) { // skip unreachable predecessors
+                    int u = eval(v, ancestor, label, semi, path);
+                    if (semi[u] < semi[w]) {
+                        semi[w] = semi[u];
+                    }
+                }
+            }
+            bucketNext[w] = bucketHead[semi[w]];
+            bucketHead[semi[w]] = w;
+            int p = parent[w];
+            ancestor[w] = p;
+            for (int v = bucketHead[p]; v != -1; v = bucketNext[v]) {
+                int u = eval(v, ancestor, label, semi, path);
+                idom[v] = semi[u] < semi[v] ? u : p;
+            }
+            bucketHead[p] = -1;
+        }
+        for (int w = 1; w < n; ++w) {
+            if (idom[w] != semi[w]) {
+                idom[w] = idom[idom[w]];
+            }
+        }
+        return idom;
+    }
+
+    /**
+     * @return the node with the minimum semi-dominator on the path from
+     * given node to the root of its tree in the forest, compressing
+     * the path on the way.
+     */
+    private static int eval(int v, int[] ancestor, int[] label, int[] semi,
+                            int[] path) {
+        if (ancestor[v] == -1) {
+            return v;
+        }
+        // collect the path whose ancestors are to be compressed
+        int size = 0;
+        for (int x = v; ancestor[ancestor[x]] != -1; x = ancestor[x]) {
+            path[size++] = x;
+        }
+        // compress from the top of the path downwards
+        for (int i = size - 1; i >= 0; --i) {
+            int x = path[i];
+            int a = ancestor[x];
+            if (semi[label[a]] < semi[label[x]]) {
+                label[x] = label[a];
+            }
+            ancestor[x] = ancestor[a];
+        }
+        return label[v];
+    }
+
+    /**
+     * Computes the preorder intervals of the nodes in the dominator tree.
+     */
+    private void numberTree() {
+        int n = nodes.size();
+        int[] stack = new int[n];
+        int[] next = new int[n]; // index of the next child to visit
+        int top = 0;
+        int counter = 0;
+        stack[0] = 0;
+        pre[0] = counter++;
+        while (top >= 0) {
+            int v = stack[top];
+            if (next[v] < children[v].length) {
+                int c = children[v][next[v]++];
+                pre[c] = counter++;
+                stack[++top] = c;
+            } else {
+                post[v] = counter;
+                --top;
+            }
+        }
+    }
+
+    /**
+     * @return true if given node is reachable from the root, otherwise false.
+     * Unreachable nodes are not in the dominator tree.
+     */
+    public boolean isReachable(N node) {
+        return numbers.containsKey(node);
+    }
+
+    /**
+     * @return the root of the dominator tree.
+     */
+    public N getRoot() {
+        return nodes.get(0);
+    }
+
+    /**
+     * @return the immediate dominator of given node, or null if the node
+     * is the root or unreachable.
+     */
+    public N getImmediateDominator(N node) {
+        Integer v = numbers.get(node);
+        return v == null || v == 0 ? null : nodes.get(idom[v]);
+    }
+
+    /**
+     * @return the children of given node in the dominator tree,
+     * i.e., the nodes immediately dominated by given node.
+     */
+    public List<N> getChildren(N node) {
+        Integer v = numbers.get(node);
+        if (v == null) {
+            return List.of();
+        }
+        List<N> result = new ArrayList<>(children[v].length);
+        for (int c : children[v]) {
+            result.add(nodes.get(c));
+        }
+        return result;
+    }
+
+    /**
+     * @return true if node a dominates node b (every node dominates itself),
+     * otherwise false. Unreachable nodes dominate nothing and are
+     * dominated by nothing.
+     */
+    public boolean dominates(N a, N b) {
+        Integer va = numbers.get(a);
+        Integer vb = numbers.get(b);
+        return va != null && vb != null &&
+                pre[va] <= pre[vb] && pre[vb] < post[va];
+    }
+
+    /**
+     * @return the dominance frontier of given node, i.e., the nodes
+     * where the dominance of given node ends.
+     */
+    public Set<N> getDominanceFrontier(N node) {
+        if (frontiers == null) {
+            frontiers = computeFrontiers();
+        }
+        Integer v = numbers.get(node);
+        return v == null ? Set.of() : Collections.unmodifiableSet(frontiers.get(v));
+    }
+
+    /**
+     * Computes the dominance frontiers by walking up the dominator tree
+     * from the predecessors of each join node (Cooper, Harvey and Kennedy).
+     */
+    private List<Set<N>> computeFrontiers() {
+        int n = nodes.size();
+        List<Set<N>> frontiers = new ArrayList<>(n);
+        for (int v = 0; v < n; ++v) {
+            frontiers.add(Sets.newHybridSet());
+        }
+        for (int b = 0; b < n; ++b) {
+            N node = nodes.get(b);
+            if (graph.getPredsOf(node).size() < 2) {
+                continue;
+            }
+            for (N pred : graph.getPredsOf(node)) {
+                Integer runner = numbers.get(pred);
+                while (runner != null && runner != idom[b]) {
+                    frontiers.get(runner).add(node);
+                    runner = runner == 0 ? null : idom[runner];
+                }
+            }
+        }
+        return frontiers;
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConstantFoldingTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    /**
+     * @return the relevant statements of each variable of given IR.
+     */
+    private static List<List<Stmt>> getRelevantStmts(IR ir) {
+        List<List<Stmt>> result = new ArrayList<>();
+        for (Var var : ir.getVars()) {
+            result.add(List.copyOf(var.getLoadFields()));
+            result.add(List.copyOf(var.getStoreFields()));
+            result.add(List.copyOf(var.getLoadArrays()));
+            result.add(List.copyOf(var.getStoreArrays()));
+            result.add(List.copyOf(var.getInvokes()));
+        }
+        return result;
+    }
+
+    /**
+     * Runs constant folding by its ID on given class.
+     *
+     * @return the folded IR of given method.
+     */
+    private static FoldedIR fold(String main, String method) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", ConstantFolding.ID});
+        IR ir = World.get().getClassHierarchy()
+                .getClass(main)
+                .getDeclaredMethod(method)
+                .getIR();
+        FoldedIR folded = ir.getResult(ConstantFolding.ID);
+        Assert.assertSame(ir, folded.getOriginalIR());
+        checkIndexes(folded);
+        checkStmts(folded);
+        return folded;
+    }
+
+    /**
+     * Checks that the statements of the folded IR and those of the
+     * original IR are mapped to each other in order.
+     */
+    private static void checkIndexes(FoldedIR folded) {
+        IR ir = folded.getOriginalIR();
+        List<Stmt> foldedStmts = folded.getIR().getStmts();
+        int lastIndex = -1;
+        for (int i = 0; i < foldedStmts.size(); ++i) {
+            Stmt stmt = foldedStmts.get(i);
+            Assert.assertEquals(i, stmt.getIndex());
+            int originalIndex = folded.getOriginalIndex(i);
+            Assert.assertTrue(lastIndex < originalIndex);
+            lastIndex = originalIndex;
+            Stmt original = folded.getOriginalStmt(stmt);
+            Assert.assertSame(ir.getStmt(originalIndex), original);
+            Assert.assertSame(stmt, folded.getFoldedStmt(original));
+        }
+        int kept = 0;
+        for (Stmt original : ir) {
+            Stmt stmt = folded.getFoldedStmt(original);
+            if (stmt != null) {
+                Assert.assertSame(original, folded.getOriginalStmt(stmt));
+                ++kept;
+            }
+        }
+        Assert.assertEquals(foldedStmts.size(), kept);
+    }
+
+    /**
+     * Checks that each statement of the folded IR is folded by the
+     * constants of its original statement, and jumps to the folded
+     * statements of the original targets.
+     */
+    private static void checkStmts(FoldedIR folded) {
+        DataflowResult<Stmt, CPFact> constants =
+                folded.getOriginalIR().getResult(ConstantPropagation.ID);
+        for (Stmt stmt : folded.getIR()) {
+            Stmt original = folded.getOriginalStmt(stmt);
+            CPFact in = constants.getInFact(original);
+            if (original instanceof Binary binary && stmt instanceof AssignLiteral assign) {
+                Value value = constants.getOutFact(original).get(binary.getLValue());
+                Assert.assertTrue(value.isConstant());
+                Assert.assertEquals(value.getConstant(),
+                        ((IntLiteral) assign.getRValue()).getValue());
+                Assert.assertEquals(binary.getLValue().getName(),
+                        assign.getLValue().getName());
+            } else if (original instanceof Binary binary) {
+                // only the binaries without constant values are kept
+                Assert.assertTrue(stmt instanceof Binary);
+                Assert.assertFalse(ConstantPropagation.canHoldInt(binary.getLValue()) &&
+                        ConstantPropagation.evaluate(binary.getRValue(), in).isConstant());
+            } else if (original instanceof If ifStmt) {
+                Value cond = ConstantPropagation.evaluate(ifStmt.getCondition(), in);
+                if (stmt instanceof Goto gotoStmt) {
+                    Assert.assertTrue(cond.isConstant() && cond.getConstant() == 1);
+                    Assert.assertSame(folded.getFoldedStmt(ifStmt.getTarget()),
+                            gotoStmt.getTarget());
+                } else if (stmt instanceof Nop) {
+                    Assert.assertTrue(cond.isConstant() && cond.getConstant() == 0);
+                } else {
+                    Assert.assertFalse(cond.isConstant());
+                    Assert.assertSame(folded.getFoldedStmt(ifStmt.getTarget()),
+                            ((If) stmt).getTarget());
+                }
+            } else if (original instanceof SwitchStmt switchStmt) {
+                Value value = ConstantPropagation.evaluate(switchStmt.getVar(), in);
+                if (stmt instanceof Goto gotoStmt) {
+                    Assert.assertTrue(value.isConstant());
+                    Stmt target = switchStmt.getDefaultTarget();
+                    for (Pair<Integer, Stmt> caseTarget : switchStmt.getCaseTargets()) {
+                        if (caseTarget.first() == value.getConstant()) {
+                            target = caseTarget.second();
+                        }
+                    }
+                    Assert.assertSame(folded.getFoldedStmt(target),
+                            gotoStmt.getTarget());
+                } else {
+                    Assert.assertFalse(value.isConstant());
+                    SwitchStmt newSwitch = (SwitchStmt) stmt;
+                    for (int i = 0; i < switchStmt.getTargets().size(); ++i) {
+                        Assert.assertSame(
+                                folded.getFoldedStmt(switchStmt.getTarget(i)),
+                                newSwitch.getTarget(i));
+                    }
+                    Assert.assertSame(
+                            folded.getFoldedStmt(switchStmt.getDefaultTarget()),
+                            newSwitch.getDefaultTarget());
+                }
+            } else {
+                Assert.assertEquals(original.getClass(), stmt.getClass());
+                if (original instanceof Goto gotoStmt) {
+                    Assert.assertSame(folded.getFoldedStmt(gotoStmt.getTarget()),
+                            ((Goto) stmt).getTarget());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the range of each exception entry of the folded IR
+     * consists of exactly the kept statements of the range of an entry
+     * of the original IR with the same handler and catch type.
+     *
+     * @return the number of the entries whose ranges are shrunk.
+     */
+    private static int checkExceptionEntries(FoldedIR folded) {
+        IR ir = folded.getOriginalIR();
+        List<Stmt> foldedStmts = folded.getIR().getStmts();
+        int shrunk = 0;
+        for (ExceptionEntry entry : folded.getIR().getExceptionEntries()) {
+            Assert.assertSame(entry.start(), foldedStmts.get(entry.start().getIndex()));
+            Assert.assertSame(entry.end(), foldedStmts.get(entry.end().getIndex()));
+            Assert.assertSame(entry.handler(), foldedStmts.get(entry.handler().getIndex()));
+            Assert.assertTrue(entry.start().getIndex() < entry.end().getIndex());
+            int start = folded.getOriginalIndex(entry.start().getIndex());
+            ExceptionEntry original = ir.getExceptionEntries()
+                    .stream()
+                    .filter(e -> e.handler() == folded.getOriginalStmt(entry.handler()) &&
+                            e.catchType().equals(entry.catchType()) &&
+                            e.start().getIndex() <= start &&
+                            start < e.end().getIndex())
+                    .findFirst()
+                    .orElseThrow();
+            int kept = 0;
+            for (int i = original.start().getIndex(); i < original.end().getIndex(); ++i) {
+                Stmt stmt = folded.getFoldedStmt(ir.getStmt(i));
+                if (stmt != null) {
+                    Assert.assertTrue(entry.start().getIndex() <= stmt.getIndex() &&
+                            stmt.getIndex() < entry.end().getIndex());
+                    ++kept;
+                }
+            }
+            Assert.assertEquals(entry.end().getIndex() - entry.start().getIndex(), kept);
+            if (kept < original.end().getIndex() - original.start().getIndex()) {
+                ++shrunk;
+            }
+        }
+        return shrunk;
+    }
+
+    @Test
+    public void testFoldOperands() {
+        FoldedIR folded = fold("FoldOperands", "fold");
+        // y = x * 3 becomes y = 6
+        Assert.assertTrue(folded.getIR().getStmts().stream().anyMatch(stmt ->
+                stmt instanceof AssignLiteral assign &&
+                        folded.getOriginalStmt(stmt) instanceof Binary &&
+                        assign.getLValue().getName().equals("y") &&
+                        ((IntLiteral) assign.getRValue()).getValue() == 6));
+        // if (x > 1) becomes a goto to its target
+        Assert.assertTrue(folded.getIR().getStmts().stream().anyMatch(stmt ->
+                stmt instanceof Goto &&
+                        folded.getOriginalStmt(stmt) instanceof If));
+        checkExceptionEntries(folded);
+    }
+
+    @Test
+    public void testSwitch() {
+        FoldedIR folded = fold("FoldOperands", "foldSwitch");
+        SwitchStmt switchStmt = (SwitchStmt) folded.getOriginalIR()
+                .getStmts()
+                .stream()
+                .filter(stmt -> stmt instanceof SwitchStmt)
+                .findFirst()
+                .orElseThrow();
+        Goto gotoStmt = (Goto) folded.getFoldedStmt(switchStmt);
+        for (Pair<Integer, Stmt> caseTarget : switchStmt.getCaseTargets()) {
+            Stmt target = folded.getFoldedStmt(caseTarget.second());
+            if (caseTarget.first() == 2) {
+                Assert.assertSame(target, gotoStmt.getTarget());
+            } else {
+                Assert.assertNull(target);
+            }
+        }
+        Assert.assertNull(folded.getFoldedStmt(switchStmt.getDefaultTarget()));
+    }
+
+    @Test
+    public void testExceptionEntries() {
+        FoldedIR folded = fold("FoldOperands", "foldTry");
+        Assert.assertFalse(folded.getIR().getExceptionEntries().isEmpty());
+        // the unreachable invocation is dropped from the range
+        Assert.assertTrue(checkExceptionEntries(folded) > 0);
+    }
+
+    @Test
+    public void testOriginalIRUnchanged() {
+        String main = "FoldOperands";
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", ConstantPropagation.ID});
+        IR ir = World.get().getClassHierarchy()
+                .getClass(main)
+                .getDeclaredMethod("fold")
+                .getIR();
+        List<Stmt> stmts = List.copyOf(ir.getStmts());
+        List<List<Stmt>> relevantStmts = getRelevantStmts(ir);
+        FoldedIR folded = new ConstantFolding(
+                new AnalysisConfig(ConstantFolding.ID)).analyze(ir);
+        // the unreachable branch and the constant multiplication are folded
+        Assert.assertTrue(folded.getIR().getStmts().size() < stmts.size());
+        Assert.assertEquals(stmts, ir.getStmts());
+        for (int i = 0; i < stmts.size(); ++i) {
+            Assert.assertEquals(i, stmts.get(i).getIndex());
+        }
+        Assert.assertEquals(relevantStmts, getRelevantStmts(ir));
+        // the relevant statements of the folded IR are its own statements
+        List<Stmt> foldedStmts = folded.getIR().getStmts();
+        getRelevantStmts(folded.getIR()).forEach(relevant ->
+                relevant.forEach(stmt ->
+                        Assert.assertSame(stmt, foldedStmts.get(stmt.getIndex()))));
+    }
+}
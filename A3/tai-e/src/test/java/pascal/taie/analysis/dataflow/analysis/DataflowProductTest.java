@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+public class DataflowProductTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    /**
+     * Runs the product of given analyses on given method.
+     *
+     * @return the IR of the method, where the results are stored.
+     */
+    private static IR runProduct(String main, String method, String analyses) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", DataflowProduct.ID + "=analyses:[" + analyses + "]"});
+        return World.get().getClassHierarchy()
+                .getClass(main)
+                .getDeclaredMethod(method)
+                .getIR();
+    }
+
+    /**
+     * Asserts that the result stored in given IR by the product is
+     * the same as the result of running given analysis alone.
+     */
+    private static void assertSameResult(IR ir, String id, int index,
+                                         DataflowResult<Stmt, ?> expected) {
+        DataflowResult<Stmt, ?> projected = ir.getResult(id);
+        DataflowResult<Stmt, ProductFact> product = ir.getResult(DataflowProduct.ID);
+        for (Stmt stmt : ir) {
+            Assert.assertEquals(expected.getInFact(stmt), projected.getInFact(stmt));
+            Assert.assertEquals(expected.getOutFact(stmt), projected.getOutFact(stmt));
+            Assert.assertEquals(expected.getInFact(stmt),
+                    product.getInFact(stmt).get(index));
+            Assert.assertEquals(expected.getOutFact(stmt),
+                    product.getOutFact(stmt).get(index));
+        }
+    }
+
+    private static void testForward(String main, String method) {
+        IR ir = runProduct(main, method, "constprop,reachdef");
+        assertSameResult(ir, ConstantPropagation.ID, 0,
+                new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID))
+                        .analyze(ir));
+        assertSameResult(ir, ReachingDefinitionAnalysis.ID, 1,
+                new ReachingDefinitionAnalysis(new AnalysisConfig(
+                        ReachingDefinitionAnalysis.ID)).analyze(ir));
+    }
+
+    @Test
+    public void testLoops() {
+        testForward("Loops", "deadLoop");
+    }
+
+    @Test
+    public void testSwitch() {
+        testForward("UnreachableSwitchBranch", "lookupSwitch");
+    }
+
+    @Test
+    public void testBackward() {
+        IR ir = runProduct("DeadAssignment", "deadAssign", "livevar");
+        assertSameResult(ir, LiveVariableAnalysis.ID, 0,
+                new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID)).analyze(ir));
+    }
+}
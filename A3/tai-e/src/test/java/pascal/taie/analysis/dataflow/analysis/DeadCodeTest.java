@@ -22,15 +22,44 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Set;
 
 public class DeadCodeTest {
 
     void testDCD(String inputClass) {
+        testDCD(inputClass, "", "");
+    }
+
+    void testDCD(String inputClass, String liveVarOpts, String cpOpts) {
         Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
                 DeadCodeDetection.ID,
-                "-a", "livevar=strongly:false",
+                "-a", "livevar=strongly:false" + liveVarOpts,
+                "-a", "constprop=edge-refine:false" + cpOpts);
+    }
+
+    void testUnstoredDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "engine:unstored");
+    }
+
+    void testSCCPDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "engine:sccp",
+                "-a", "livevar=strongly:false");
+    }
+
+    void testDemandDCD(String inputClass, String opts) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "engine:demand" + opts,
                 "-a", "constprop=edge-refine:false");
     }
 
@@ -58,4 +87,100 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testLoopsRPOWorkList() {
+        testDCD("Loops", ";worklist:rpo", ";worklist:rpo");
+    }
+
+    @Test
+    public void testLoopsSCCSolver() {
+        testDCD("Loops", ";solver:scc", ";solver:scc");
+    }
+
+    @Test
+    public void testLoopsBlockSolver() {
+        testDCD("Loops", ";solver:block", ";solver:block");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchBlockSolver() {
+        testDCD("UnreachableSwitchBranch", ";solver:block", ";solver:block");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchSparseCP() {
+        testDCD("UnreachableSwitchBranch", "", ";mode:sparse");
+    }
+
+    @Test
+    public void testLoopsSparseCP() {
+        testDCD("Loops", "", ";mode:sparse");
+    }
+
+    @Test
+    public void testUnreachableIfBranchPrimitiveCP() {
+        testDCD("UnreachableIfBranch", "", ";mode:primitive");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchPrunedCP() {
+        testDCD("UnreachableSwitchBranch", "", ";prune-dead:true");
+    }
+
+    @Test
+    public void testDeadAssignmentMultiThreaded() {
+        testDCD("DeadAssignment", ";threads:4", ";threads:1");
+    }
+
+    @Test
+    public void testLoopsUnstoredEngine() {
+        testUnstoredDCD("Loops");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchUnstoredEngine() {
+        testUnstoredDCD("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testUnreachableIfBranchSCCP() {
+        testSCCPDCD("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testLoopsSCCP() {
+        testSCCPDCD("Loops");
+    }
+
+    /**
+     * z = 200 is unreachable, so SCCP knows z = 100 at the second branch
+     * and finds its else branch dead, while constant propagation meets
+     * both values of z into NAC and keeps the branch.
+     */
+    @Test
+    public void testDeadBranchConstantSCCP() {
+        testSCCPDCD("DeadBranchConstant");
+        IR ir = World.get().getClassHierarchy()
+                .getClass("DeadBranchConstant")
+                .getDeclaredMethod("branch")
+                .getIR();
+        ir.storeResult(ConstantPropagation.ID, new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID)).analyze(ir));
+        Set<Stmt> byResults = new DeadCodeDetection(
+                new AnalysisConfig(DeadCodeDetection.ID)).analyze(ir);
+        Set<Stmt> bySCCP = ir.getResult(DeadCodeDetection.ID);
+        Assert.assertTrue(bySCCP.containsAll(byResults));
+        Assert.assertTrue(bySCCP.size() > byResults.size());
+    }
+
+    @Test
+    public void testDeadAssignmentDemandEngine() {
+        testDemandDCD("DeadAssignment", "");
+    }
+
+    @Test
+    public void testLoopsDemandEngineFallback() {
+        testDemandDCD("Loops", ";max-live-queries:1");
+    }
 }
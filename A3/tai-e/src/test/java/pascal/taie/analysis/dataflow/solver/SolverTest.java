@@ -0,0 +1,194 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedBitSetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+public class SolverTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    /**
+     * Builds the world of given main class and the CFGs of its methods.
+     *
+     * @return the IR of given method of the main class.
+     */
+    private static IR getIR(String main, String method) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", CFGBuilder.ID});
+        return World.get().getClassHierarchy()
+                .getClass(main)
+                .getDeclaredMethod(method)
+                .getIR();
+    }
+
+    /**
+     * Builds and stores the CFG of given IR without exceptional edges,
+     * so that the CFGs of an IR and its edited copy have the same edges.
+     */
+    private static CFG<Stmt> buildCFG(IR ir) {
+        CFG<Stmt> cfg = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false)).analyze(ir);
+        ir.storeResult(CFGBuilder.ID, cfg);
+        return cfg;
+    }
+
+    /**
+     * @return a copy of given IR where the first statement, which must not
+     * be the target of any jump, is replaced by a nop.
+     */
+    private static IR removeFirstStmt(IR ir) {
+        List<Stmt> stmts = new ArrayList<>(ir.getStmts());
+        Nop nop = new Nop();
+        nop.setIndex(0);
+        nop.setLineNumber(stmts.get(0).getLineNumber());
+        stmts.set(0, nop);
+        return new DefaultIR(ir.getMethod(), ir.getThis(), ir.getParams(),
+                Set.copyOf(ir.getReturnVars()), ir.getVars(), stmts,
+                ir.getExceptionEntries());
+    }
+
+    @FunctionalInterface
+    private interface Reanalysis<Fact> {
+        DataflowResult<Stmt, Fact> analyze(IR ir,
+                DataflowResult<Stmt, Fact> previous, Collection<Stmt> changed);
+    }
+
+    /**
+     * Checks that re-analyzing given IR incrementally gives the same result
+     * as analyzing it from scratch, when nothing changed, when the first
+     * statement changed, and when all nodes changed.
+     */
+    private static <Fact> void testIncremental(
+            IR ir, Function<IR, DataflowResult<Stmt, Fact>> analysis,
+            Reanalysis<Fact> reanalysis) {
+        CFG<Stmt> cfg = buildCFG(ir);
+        assertSameResult(cfg, analysis.apply(ir),
+                reanalysis.analyze(ir, analysis.apply(ir), List.of()));
+        IR edited = removeFirstStmt(ir);
+        CFG<Stmt> editedCFG = buildCFG(edited);
+        DataflowResult<Stmt, Fact> expected = analysis.apply(edited);
+        // the edit must change the facts of the first statement
+        DataflowResult<Stmt, Fact> before = analysis.apply(ir);
+        Assert.assertFalse(before.getInFact(ir.getStmt(0))
+                .equals(expected.getInFact(edited.getStmt(0))) &&
+                before.getOutFact(ir.getStmt(0))
+                        .equals(expected.getOutFact(edited.getStmt(0))));
+        assertSameResult(editedCFG, expected, reanalysis.analyze(edited,
+                analysis.apply(ir), List.of(edited.getStmt(0))));
+        assertSameResult(editedCFG, expected, reanalysis.analyze(edited,
+                analysis.apply(ir), editedCFG.getNodes()));
+    }
+
+    private static <Fact> void assertSameResult(
+            CFG<Stmt> cfg, DataflowResult<Stmt, Fact> expected,
+            DataflowResult<Stmt, Fact> actual) {
+        for (Stmt stmt : cfg) {
+            Assert.assertEquals("IN fact of " + stmt,
+                    expected.getInFact(stmt), actual.getInFact(stmt));
+            Assert.assertEquals("OUT fact of " + stmt,
+                    expected.getOutFact(stmt), actual.getOutFact(stmt));
+        }
+    }
+
+    private static void assertShared(SolverStats stats, CFG<Stmt> cfg) {
+        SolverStats.Metrics metrics = stats.getMetrics().get(0);
+        Assert.assertEquals(2 * cfg.getNumberOfNodes(), metrics.getFacts());
+        Assert.assertTrue(metrics.getDistinctFacts() > 0);
+        Assert.assertTrue(metrics.getDistinctFacts() < metrics.getFacts());
+    }
+
+    @Test
+    public void testInternForward() {
+        IR ir = getIR("Loops", "deadLoop");
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        ConstantPropagation interning = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "intern", true, "stats", "csv"));
+        DataflowResult<Stmt, CPFact> expected = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID)).analyze(ir);
+        assertSameResult(cfg, expected, interning.analyze(ir));
+        assertShared(interning.getSolverStats(), cfg);
+    }
+
+    @Test
+    public void testInternBackward() {
+        IR ir = getIR("DeadAssignment", "deadAssign");
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        LiveVariableAnalysis interning = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "intern", true, "stats", "csv"));
+        DataflowResult<Stmt, IndexedBitSetFact<Var>> expected = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID)).analyze(ir);
+        assertSameResult(cfg, expected, interning.analyze(ir));
+        assertShared(interning.getSolverStats(), cfg);
+    }
+
+    @Test
+    public void testIncrementalForward() {
+        for (String solver : List.of("worklist", "scc", "iterative")) {
+            ConstantPropagation cp = new ConstantPropagation(new AnalysisConfig(
+                    ConstantPropagation.ID, "solver", solver));
+            testIncremental(getIR("Loops", "deadLoop"), cp::analyze, cp::analyze);
+        }
+    }
+
+    @Test
+    public void testIncrementalBackward() {
+        for (String solver : List.of("worklist", "scc", "iterative")) {
+            LiveVariableAnalysis liveVar = new LiveVariableAnalysis(new AnalysisConfig(
+                    LiveVariableAnalysis.ID, "solver", solver));
+            testIncremental(getIR("DeadAssignment", "deadAssign"),
+                    liveVar::analyze, liveVar::analyze);
+        }
+    }
+
+    @Test
+    public void testIncrementalFallback() {
+        for (String mode : List.of("sparse", "primitive")) {
+            ConstantPropagation cp = new ConstantPropagation(new AnalysisConfig(
+                    ConstantPropagation.ID, "mode", mode));
+            testIncremental(getIR("Loops", "deadLoop"), cp::analyze, cp::analyze);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.DominatorTree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks the dominator trees, dominance frontiers, and the placement
+ * and renaming of the phis against their definitions.
+ */
+public class SSATest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    private static SSA getSSA(String main, String method) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", SSABuilder.ID});
+        IR ir = World.get().getClassHierarchy()
+                .getClass(main)
+                .getDeclaredMethod(method)
+                .getIR();
+        return ir.getResult(SSABuilder.ID);
+    }
+
+    /**
+     * @return the dominators of the reachable nodes, computed by the
+     * iterative data-flow algorithm.
+     */
+    private static Map<Stmt, Set<Stmt>> computeDominators(CFG<Stmt> cfg) {
+        Set<Stmt> reachable = Sets.newSet();
+        Deque<Stmt> workList = new ArrayDeque<>();
+        reachable.add(cfg.getEntry());
+        workList.add(cfg.getEntry());
+        while (!workList.isEmpty()) {
+            for (Stmt succ : cfg.getSuccsOf(workList.poll())) {
+                if (reachable.add(succ)) {
+                    workList.add(succ);
+                }
+            }
+        }
+        Map<Stmt, Set<Stmt>> doms = Maps.newMap();
+        for (Stmt node : reachable) {
+            doms.put(node, cfg.isEntry(node) ? Set.of(node) : reachable);
+        }
+        boolean changed;
+        do {
+            changed = false;
+            for (Stmt node : reachable) {
+                if (cfg.isEntry(node)) {
+                    continue;
+                }
+                Set<Stmt> dom = null;
+                for (Stmt pred : cfg.getPredsOf(node)) {
+                    if (reachable.contains(pred)) {
+                        if (dom == null) {
+                            dom = Sets.newSet();
+                            dom.addAll(doms.get(pred));
+                        } else {
+                            dom.retainAll(doms.get(pred));
+                        }
+                    }
+                }
+                assert dom != null;
+                dom.add(node);
+                if (!dom.equals(doms.get(node))) {
+                    doms.put(node, dom);
+                    changed = true;
+                }
+            }
+        } while (changed);
+        return doms;
+    }
+
+    private static void checkDominatorTree(SSA ssa) {
+        CFG<Stmt> cfg = ssa.getCFG();
+        DominatorTree<Stmt> domTree = ssa.getDominatorTree();
+        Map<Stmt, Set<Stmt>> doms = computeDominators(cfg);
+        for (Stmt a : cfg) {
+            Assert.assertEquals(doms.containsKey(a), domTree.isReachable(a));
+            for (Stmt b : cfg) {
+                boolean expected = doms.containsKey(b) &&
+                        doms.containsKey(a) && doms.get(b).contains(a);
+                Assert.assertEquals(a + " dom " + b,
+                        expected, domTree.dominates(a, b));
+            }
+        }
+        // the immediate dominator is the closest strict dominator
+        doms.forEach((node, dom) -> {
+            Stmt idom = domTree.getImmediateDominator(node);
+            if (cfg.isEntry(node)) {
+                Assert.assertNull(idom);
+            } else {
+                Assert.assertTrue(dom.contains(idom) && idom != node);
+                dom.forEach(d -> Assert.assertTrue(d == node ||
+                        doms.get(idom).contains(d)));
+                Assert.assertTrue(domTree.getChildren(idom).contains(node));
+            }
+        });
+        // the dominance frontier of a is the set of nodes b, such that
+        // a dominates a predecessor of b, but not strictly dominates b
+        for (Stmt a : doms.keySet()) {
+            Set<Stmt> frontier = Sets.newSet();
+            for (Stmt b : doms.keySet()) {
+                boolean strict = a != b && doms.get(b).contains(a);
+                if (!strict && cfg.getPredsOf(b).stream().anyMatch(pred ->
+                        doms.containsKey(pred) && doms.get(pred).contains(a))) {
+                    frontier.add(b);
+                }
+            }
+            Assert.assertEquals("DF(" + a + ")",
+                    frontier, domTree.getDominanceFrontier(a));
+        }
+    }
+
+    /**
+     * Checks that the phis of each variable are placed exactly at the
+     * iterated dominance frontier of its definitions, and of the successors
+     * reached from the definitions only by exceptional edges.
+     */
+    private static void checkPhiPlacement(SSA ssa) {
+        CFG<Stmt> cfg = ssa.getCFG();
+        DominatorTree<Stmt> domTree = ssa.getDominatorTree();
+        for (Var var : cfg.getIR().getVars()) {
+            Set<Stmt> frontier = Sets.newSet();
+            Deque<Stmt> workList = new ArrayDeque<>();
+            for (Stmt stmt : cfg) {
+                if (ssa.getDef(stmt) != null &&
+                        ssa.getDef(stmt).getVar() == var) {
+                    workList.add(stmt);
+                    for (Stmt succ : cfg.getSuccsOf(stmt)) {
+                        if (isExceptionalOnly(cfg, stmt, succ) && frontier.add(succ)) {
+                            workList.add(succ);
+                        }
+                    }
+                }
+            }
+            while (!workList.isEmpty()) {
+                for (Stmt df : domTree.getDominanceFrontier(workList.poll())) {
+                    if (frontier.add(df)) {
+                        workList.add(df);
+                    }
+                }
+            }
+            for (Stmt stmt : cfg) {
+                boolean hasPhi = ssa.getPhis(stmt).stream()
+                        .anyMatch(phi -> phi.getVar() == var);
+                Assert.assertEquals("phi of " + var + " at " + stmt,
+                        frontier.contains(stmt), hasPhi);
+            }
+        }
+    }
+
+    /**
+     * @return the definition of given variable at the entry of given
+     * statement, found by walking up the dominator tree.
+     */
+    private static Def getDefAtEntry(SSA ssa, Stmt stmt, Var var) {
+        for (Phi phi : ssa.getPhis(stmt)) {
+            if (phi.getVar() == var) {
+                return phi.getDef();
+            }
+        }
+        Stmt idom = ssa.getDominatorTree().getImmediateDominator(stmt);
+        return idom == null ? null : getDefAtExit(ssa, idom, var);
+    }
+
+    private static Def getDefAtExit(SSA ssa, Stmt stmt, Var var) {
+        Def def = ssa.getDef(stmt);
+        return def != null && def.getVar() == var ?
+                def : getDefAtEntry(ssa, stmt, var);
+    }
+
+    private static boolean isExceptionalOnly(CFG<Stmt> cfg, Stmt pred, Stmt succ) {
+        return cfg.getOutEdgesOf(pred)
+                .stream()
+                .filter(edge -> edge.getTarget() == succ)
+                .allMatch(Edge::isExceptional);
+    }
+
+    /**
+     * Checks that each use and each phi operand is renamed
+     * to the definition which reaches it.
+     *
+     * @return the number of the phi operands which flow along
+     * the exceptional edges from the statements defining their variables.
+     */
+    private static int checkRenaming(SSA ssa) {
+        CFG<Stmt> cfg = ssa.getCFG();
+        for (Stmt stmt : cfg) {
+            if (!ssa.getDominatorTree().isReachable(stmt)) {
+                continue;
+            }
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var) {
+                    Def def = ssa.getReachingDef(stmt, var);
+                    Def expected = getDefAtEntry(ssa, stmt, var);
+                    if (expected == null) {
+                        Assert.assertEquals(Def.Kind.ENTRY, def.getKind());
+                    } else {
+                        Assert.assertSame(expected, def);
+                    }
+                    Assert.assertTrue(def.getUses().contains(stmt));
+                }
+            }
+        }
+        int exceptionalDefs = 0;
+        for (Stmt stmt : cfg) {
+            for (Phi phi : ssa.getPhis(stmt)) {
+                List<Stmt> preds = phi.getPreds();
+                for (int i = 0; i < preds.size(); ++i) {
+                    Stmt pred = preds.get(i);
+                    Def operand = phi.getOperands().get(i);
+                    Def expected;
+                    if (isExceptionalOnly(cfg, pred, stmt)) {
+                        // the exception is thrown before pred defines a variable
+                        expected = getDefAtEntry(ssa, pred, phi.getVar());
+                        Def predDef = ssa.getDef(pred);
+                        if (predDef != null && predDef.getVar() == phi.getVar()) {
+                            Assert.assertNotSame(predDef, operand);
+                            ++exceptionalDefs;
+                        }
+                    } else {
+                        expected = getDefAtExit(ssa, pred, phi.getVar());
+                    }
+                    if (expected == null) {
+                        Assert.assertEquals(Def.Kind.ENTRY, operand.getKind());
+                    } else {
+                        Assert.assertSame(expected, operand);
+                    }
+                    Assert.assertTrue(operand.getPhiUses().contains(phi));
+                }
+            }
+        }
+        return exceptionalDefs;
+    }
+
+    /**
+     * @return the statements defining the variable of given definition
+     * (the entry of the CFG for the entry definition), by following the
+     * operands of the phis.
+     */
+    private static Set<Stmt> resolve(SSA ssa, Def def, Set<Def> visited) {
+        Set<Stmt> result = Sets.newSet();
+        if (visited.add(def)) {
+            switch (def.getKind()) {
+                case ENTRY -> result.add(ssa.getCFG().getEntry());
+                case STMT -> result.add(def.getStmt());
+                case PHI -> def.getPhi().getOperands().forEach(operand ->
+                        result.addAll(resolve(ssa, operand, visited)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the definitions of each use are exactly the definitions
+     * reaching it, which are computed by the iterative data-flow algorithm
+     * on the CFG (without the dominator tree), where a statement throwing
+     * an exception does not define its variable.
+     */
+    private static void checkReachingDefs(SSA ssa) {
+        CFG<Stmt> cfg = ssa.getCFG();
+        for (Var var : cfg.getIR().getVars()) {
+            Map<Stmt, Set<Stmt>> in = Maps.newMap();
+            Map<Stmt, Set<Stmt>> out = Maps.newMap();
+            for (Stmt stmt : cfg) {
+                in.put(stmt, Sets.newSet());
+                out.put(stmt, Sets.newSet());
+            }
+            in.get(cfg.getEntry()).add(cfg.getEntry());
+            boolean changed;
+            do {
+                changed = false;
+                for (Stmt stmt : cfg) {
+                    Set<Stmt> stmtIn = in.get(stmt);
+                    for (Stmt pred : cfg.getPredsOf(stmt)) {
+                        changed |= stmtIn.addAll(isExceptionalOnly(cfg, pred, stmt) ?
+                                in.get(pred) : out.get(pred));
+                    }
+                    Def def = ssa.getDef(stmt);
+                    Set<Stmt> stmtOut = def != null && def.getVar() == var ?
+                            Set.of(stmt) : stmtIn;
+                    changed |= out.get(stmt).addAll(stmtOut);
+                }
+            } while (changed);
+            for (Stmt stmt : cfg) {
+                if (ssa.getDominatorTree().isReachable(stmt) &&
+                        stmt.getUses().contains(var)) {
+                    Assert.assertEquals(var + " at " + stmt, in.get(stmt),
+                            resolve(ssa, ssa.getReachingDef(stmt, var), Sets.newSet()));
+                }
+            }
+        }
+    }
+
+    private static int check(String main, String method) {
+        SSA ssa = getSSA(main, method);
+        checkDominatorTree(ssa);
+        checkPhiPlacement(ssa);
+        checkReachingDefs(ssa);
+        return checkRenaming(ssa);
+    }
+
+    @Test
+    public void testLoops() {
+        check("Loops", "deadLoop");
+    }
+
+    @Test
+    public void testSwitch() {
+        check("UnreachableSwitchBranch", "lookupSwitch");
+    }
+
+    @Test
+    public void testTryCatch() {
+        // the handler merges the definitions of x before the invocations
+        Assert.assertTrue(check("TryCatch", "tryCatch") > 0);
+    }
+
+    @Test
+    public void testSingleThrow() {
+        // the handler is dominated by the only invocation which defines x,
+        // but sees the definition of x before the invocation
+        Assert.assertTrue(check("TryCatch", "singleThrow") > 0);
+    }
+}
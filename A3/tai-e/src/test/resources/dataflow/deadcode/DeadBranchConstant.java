@@ -0,0 +1,20 @@
+class DeadBranchConstant {
+
+    int branch() {
+        int x = 10;
+        int y = 1;
+        int z;
+        if (x > y) {
+            z = 100;
+        } else {
+            z = 200; // unreachable branch
+        }
+        int r;
+        if (z > x) {
+            r = 1;
+        } else {
+            r = 2; // unreachable branch, as z = 200 is unreachable
+        }
+        return r;
+    }
+}
@@ -0,0 +1,55 @@
+class FoldOperands {
+
+    int f;
+
+    int fold(int[] a, FoldOperands o) {
+        int x = 2;
+        int y = x * 3;
+        a[0] = y;
+        o.f = a[1];
+        int z = o.f + y;
+        if (x > 1) {
+            o.use(z);
+        } else {
+            z = o.use(y); // unreachable branch
+        }
+        return z;
+    }
+
+    int foldSwitch() {
+        int k = 2;
+        switch (k) {
+            case 1:
+                return 10; // unreachable case
+            case 2:
+                return 20;
+            default:
+                return 30; // unreachable default
+        }
+    }
+
+    int foldTry(FoldOperands o) {
+        int x = 1;
+        int r = 0;
+        try {
+            if (x < 0) {
+                r = o.check(1); // unreachable branch
+            }
+            r = o.check(2);
+        } catch (Exception e) {
+            r = -1;
+        }
+        return r;
+    }
+
+    int use(int i) {
+        return i;
+    }
+
+    int check(int i) throws Exception {
+        if (i > 10) {
+            throw new Exception();
+        }
+        return i;
+    }
+}
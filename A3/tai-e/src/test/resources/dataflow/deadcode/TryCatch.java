@@ -0,0 +1,30 @@
+class TryCatch {
+
+    static int tryCatch(int i) {
+        int x = 0;
+        try {
+            x = next(i);
+            x = next(x);
+        } catch (Exception e) {
+            return x; // x is 0 or the result of next(i), not of next(x)
+        }
+        return x;
+    }
+
+    static int singleThrow(int i) {
+        int x = 0;
+        try {
+            x = next(i);
+        } catch (Exception e) {
+            return x; // x is 0, as next(i) throws before x is assigned
+        }
+        return x;
+    }
+
+    static int next(int i) throws Exception {
+        if (i > 10) {
+            throw new Exception();
+        }
+        return i + 1;
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
@@ -49,8 +50,19 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     protected InterSolver<Method, Node, Fact> solver;
 
+    private final SolverStats stats;
+
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
+        stats = SolverStats.of(getId(), getOptions());
+    }
+
+    /**
+     * @return the solver statistics of this analysis,
+     * or null if the statistics are disabled.
+     */
+    public SolverStats getSolverStats() {
+        return stats;
     }
 
     /**
@@ -121,9 +133,12 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
+        solver = new InterSolver<>(this, icfg, stats);
         DataflowResult<Node, Fact> result = solver.solve();
         finish();
+        if (stats != null) {
+            stats.dump();
+        }
         return result;
     }
 }
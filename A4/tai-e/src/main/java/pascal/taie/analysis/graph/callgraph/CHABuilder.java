@@ -29,9 +29,12 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
 import java.util.ArrayDeque;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
@@ -40,11 +43,19 @@ import java.util.Set;
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
-    private ClassHierarchy hierarchy;
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    /**
+     * Cache of the targets of virtual and interface calls,
+     * keyed by the declaring classes and subsignatures of the calls.
+     * It is concurrent, as {@link ParallelCHABuilder} resolves call sites
+     * by this builder in parallel.
+     */
+    private final Map<JClass, Map<Subsignature, Set<JMethod>>> virtualTargets =
+            Maps.newConcurrentMap();
 
     @Override
     public CallGraph<Invoke, JMethod> build() {
-        hierarchy = World.get().getClassHierarchy();
         return buildCallGraph(World.get().getMainMethod());
     }
 
@@ -74,64 +85,44 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     /**
      * Resolves call targets (callees) of a call site via CHA.
+     * This method is thread-safe.
      */
-    private Set<JMethod> resolve(Invoke callSite) {
+    Set<JMethod> resolve(Invoke callSite) {
         // TODO - finish me DONE
         // 按照callsite的类型进行分类讨论
-        Set<JMethod> methods = new HashSet<>(); // 初始时为空
         CallKind kind = CallGraphs.getCallKind(callSite);
         MethodRef methodref = callSite.getMethodRef();
         Subsignature subsignature = methodref.getSubsignature();
         JClass clazz = methodref.getDeclaringClass();
-        switch (kind) {
-            case STATIC -> { // Static方法就是对应类中的方法
-                methods.add(clazz.getDeclaredMethod(subsignature));
-            }
-            case SPECIAL -> { // Special包含自身类的一些方法和父类中的方法，因此需要dispatch，保证有一个结果，不用处理null
-                methods.add(dispatch(clazz, subsignature));
-            }
-            case VIRTUAL, INTERFACE -> { // Virtual和Interface包含整个类继承树上的方法
-                Queue<JClass> queue = new ArrayDeque<>(); // 使用一个Queue进行遍历
-                queue.add(clazz);
-                while (!queue.isEmpty()) {
-                    JClass jclass = queue.poll();
-                    JMethod method = dispatch(jclass, subsignature); // 总之先dispatch
-                    if (method != null && !method.isAbstract()) {
-                        methods.add(method);
-                    }
-                    if (jclass.isInterface()) { // 接口既要找继承该接口的接口，也要找直接实现该接口的类
-                        queue.addAll(hierarchy.getDirectSubinterfacesOf(jclass));
-                        queue.addAll(hierarchy.getDirectImplementorsOf(jclass));
-                    } else {
-                        // 如果是一个有效的类，直接找子类即可
-                        queue.addAll(hierarchy.getDirectSubclassesOf(jclass));
-                    }
-                }
-            }
-        }
+        return switch (kind) {
+            // Static方法就是对应类中的方法
+            case STATIC -> singleton(clazz.getDeclaredMethod(subsignature));
+            // Special包含自身类的一些方法和父类中的方法，因此需要dispatch
+            case SPECIAL -> singleton(hierarchy.dispatch(clazz, subsignature));
+            // Virtual和Interface包含整个类继承树上的方法，
+            // 相同(类, 子签名)的调用点的结果相同，因此缓存起来
+            case VIRTUAL, INTERFACE -> virtualTargets
+                    .computeIfAbsent(clazz, c -> Maps.newConcurrentMap())
+                    .computeIfAbsent(subsignature, s -> resolveVirtual(clazz, s));
+            default -> Set.of();
+        };
+    }
 
-        return methods;
+    private static Set<JMethod> singleton(JMethod method) {
+        return method != null ? Set.of(method) : Set.of();
     }
 
     /**
-     * Looks up the target method based on given class and method subsignature.
-     *
-     * @return the dispatched target method, or null if no satisfying method
-     * can be found.
+     * @return the methods dispatched on all subtypes of given class.
      */
-    private JMethod dispatch(JClass jclass, Subsignature subsignature) {
-        // TODO - finish me DONE
-        // 在类中寻找指定的方法，如果没有，就递归地到父类中去找，如果没有父类，那么就返回null
-        // 要考虑抽象方法
-        if (jclass == null) { // 递归找父类时可能没有父类，此时返回的是null
-            return null;
-        } else { // 类有效
-            JMethod method = jclass.getDeclaredMethod(subsignature);
-            if (method != null && !method.isAbstract()) {
-                return jclass.getDeclaredMethod(subsignature); // 如果类里有该方法且不是抽象方法
-            } else {
-                return dispatch(jclass.getSuperClass(), subsignature); // 没有则递归到父类里找
+    private Set<JMethod> resolveVirtual(JClass jclass, Subsignature subsignature) {
+        Set<JMethod> methods = Sets.newHybridSet();
+        for (JClass subtype : hierarchy.getAllSubtypesOf(jclass)) {
+            JMethod method = hierarchy.dispatch(subtype, subsignature);
+            if (method != null) {
+                methods.add(method);
             }
         }
+        return Collections.unmodifiableSet(methods);
     }
 }
@@ -48,22 +48,42 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     private final String algorithm;
 
+    /**
+     * Number of threads of CHA, given by option "threads":
+     * <ul>
+     *     <li>1 (default): builds the call graph sequentially;</li>
+     *     <li>0: builds it in parallel on the common fork-join pool;</li>
+     *     <li>n &gt; 1: builds it in parallel by n threads.</li>
+     * </ul>
+     * The call graph does not depend on the number of threads.
+     */
+    private final int threads;
+
     public CallGraphBuilder(AnalysisConfig config) {
         super(config);
         algorithm = config.getOptions().getString("algorithm");
+        threads = getOptions().get("threads") != null ?
+                getOptions().getInt("threads") : 1;
+        if (threads < 0) {
+            throw new ConfigException("Invalid number of threads: " + threads);
+        }
     }
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
-        CGBuilder<Invoke, JMethod> builder;
-        if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
-        } else {
-            throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
-        }
+        CGBuilder<Invoke, JMethod> builder = switch (algorithm) {
+            case "cha" -> threads == 1 ?
+                    new CHABuilder() : new ParallelCHABuilder(threads);
+            case "rta" -> new RTABuilder();
+            default -> throw new ConfigException(
+                    "Unknown call graph building algorithm: " + algorithm);
+        };
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
+        // the call graph is finished, and frozen for fast queries
+        // by the later analyses, e.g., ICFG construction
+        callGraph = FrozenCallGraph.freeze(callGraph);
         takeAction(callGraph);
         return callGraph;
     }
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Call graph which can be built by multiple threads concurrently.
+ * It records the reachable methods and the callees of each call site,
+ * and is converted to a {@link DefaultCallGraph} by {@link #freeze()}
+ * after the construction, which is then used for queries.
+ */
+class ConcurrentCallGraph {
+
+    private final JMethod entry;
+
+    private final Set<JMethod> reachableMethods = Sets.newConcurrentSet();
+
+    private final Map<Invoke, Set<JMethod>> callSiteToCallees = Maps.newConcurrentMap();
+
+    ConcurrentCallGraph(JMethod entry) {
+        this.entry = entry;
+    }
+
+    /**
+     * Adds a reachable method to this call graph.
+     *
+     * @return true if this call graph changed as a result of the call,
+     * i.e., exactly one of the threads adding the same method gets true.
+     */
+    boolean addReachableMethod(JMethod method) {
+        return reachableMethods.add(method);
+    }
+
+    /**
+     * Sets the callees of a call site, which are not modified later.
+     * A call site is resolved by only the thread which processes
+     * its container method.
+     */
+    void setCalleesOf(Invoke callSite, Set<JMethod> callees) {
+        callSiteToCallees.put(callSite, callees);
+    }
+
+    /**
+     * Converts this call graph to a {@link DefaultCallGraph}. The methods
+     * and edges are added in the same order as a sequential breadth-first
+     * traversal from the entry, e.g., {@link CHABuilder}, regardless of
+     * the order in which the threads have added them, so that the results
+     * and their dumps do not depend on the scheduling of the threads.
+     */
+    DefaultCallGraph freeze() {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        Queue<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+                    Set<JMethod> callees = callSiteToCallees.getOrDefault(callSite, Set.of());
+                    workList.addAll(callees);
+                    CallKind kind = CallGraphs.getCallKind(callSite);
+                    for (JMethod callee : callees) {
+                        callGraph.addEdge(new Edge<>(kind, callSite, callee));
+                    }
+                }
+            }
+        }
+        return callGraph;
+    }
+}
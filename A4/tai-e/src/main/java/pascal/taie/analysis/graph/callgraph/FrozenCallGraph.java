@@ -0,0 +1,479 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph in compressed sparse row (CSR) form, converted
+ * from a finished call graph by {@link #freeze(CallGraph)}.
+ * <p>
+ * The methods and call sites are given dense ids, where the call sites
+ * in the same method have consecutive ids. The neighbors of each method
+ * and call site (callees, callers, successors, predecessors and edges)
+ * are stored in contiguous ranges of flat arrays, and are returned as
+ * set views of the ranges, which are created once in the conversion,
+ * thus queries do not stream, and only iterating a view allocates
+ * (its iterator). The views iterate in the same order as the original
+ * call graph, and answer {@code contains} by the ids of the elements,
+ * i.e., by a range check or a binary search in the sorted ids.
+ */
+public class FrozenCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private final JMethod[] entryMethods;
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> methodIds;
+
+    private final Map<Invoke, Integer> callSiteIds;
+
+    /**
+     * Call sites in {@code methods[i]} are {@code callSites[callSiteStart[i]]}
+     * to {@code callSites[callSiteStart[i + 1] - 1]}.
+     */
+    private final int[] callSiteStart;
+
+    /**
+     * Callees of {@code callSites[i]} are {@code callees[calleeStart[i]]}
+     * to {@code callees[calleeStart[i + 1] - 1]}, and the corresponding
+     * edges are at the same positions of {@code edges} and
+     * {@code methodEdges}. Thus, the edges out of {@code methods[i]} are
+     * a contiguous range as well.
+     */
+    private final int[] calleeStart;
+
+    private final Edge<Invoke, JMethod>[] edges;
+
+    /**
+     * Edges into {@code methods[i]} are {@code edges[inEdges[inEdgeStart[i]]]}
+     * to {@code edges[inEdges[inEdgeStart[i + 1] - 1]]}.
+     */
+    private final int[] inEdgeStart;
+
+    private final int[] inEdges;
+
+    private final Set<Invoke>[] callSitesInViews;
+
+    private final Set<JMethod>[] calleeViews;
+
+    private final Set<Invoke>[] callerViews;
+
+    private final Set<JMethod>[] succViews;
+
+    private final Set<JMethod>[] predViews;
+
+    private final Set<MethodEdge<Invoke, JMethod>>[] outEdgeViews;
+
+    private final Set<MethodEdge<Invoke, JMethod>>[] inEdgeViews;
+
+    private final Set<JMethod> nodes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private FrozenCallGraph(CallGraph<Invoke, JMethod> callGraph) {
+        entryMethods = callGraph.entryMethods().toArray(JMethod[]::new);
+        methods = callGraph.reachableMethods().toArray(JMethod[]::new);
+        int nMethods = methods.length;
+        methodIds = Maps.newMap(nMethods);
+        for (int i = 0; i < nMethods; ++i) {
+            methodIds.put(methods[i], i);
+        }
+        nodes = new ArraySet<>(methods, 0, nMethods, methodIds::containsKey);
+        // number call sites
+        Invoke[] callSites = callGraph.reachableMethods()
+                .flatMap(callGraph::callSitesIn)
+                .toArray(Invoke[]::new);
+        int nCallSites = callSites.length;
+        callSiteIds = Maps.newMap(nCallSites);
+        callSiteStart = new int[nMethods + 1];
+        int[] callSiteContainers = new int[nCallSites];
+        for (int i = 0, cs = 0; i < nMethods; ++i) {
+            callSiteStart[i] = cs;
+            for (Invoke callSite : callGraph.getCallSitesIn(methods[i])) {
+                callSiteIds.put(callSite, cs);
+                callSiteContainers[cs++] = i;
+            }
+        }
+        callSiteStart[nMethods] = nCallSites;
+        // callees and edges out of the call sites
+        calleeStart = new int[nCallSites + 1];
+        edges = callGraph.reachableMethods()
+                .flatMap(callGraph::callSitesIn)
+                .flatMap(callGraph::edgesOutOf)
+                .toArray(Edge[]::new);
+        JMethod[] callees = new JMethod[edges.length];
+        MethodEdge<Invoke, JMethod>[] methodEdges = new MethodEdge[edges.length];
+        Map<Edge<Invoke, JMethod>, Integer> edgeIds = Maps.newMap(edges.length);
+        for (int cs = 0, e = 0; cs < nCallSites; ++cs) {
+            calleeStart[cs] = e;
+            for (; e < edges.length && edges[e].getCallSite() == callSites[cs]; ++e) {
+                callees[e] = edges[e].getCallee();
+                methodEdges[e] = new MethodEdge<>(
+                        methods[callSiteContainers[cs]], callees[e], callSites[cs]);
+                edgeIds.put(edges[e], e);
+            }
+        }
+        calleeStart[nCallSites] = edges.length;
+        // edges into the methods, in the same order as the original graph
+        inEdgeStart = new int[nMethods + 1];
+        inEdges = new int[edges.length];
+        for (int i = 0, k = 0; i < nMethods; ++i) {
+            inEdgeStart[i] = k;
+            for (Iterator<Edge<Invoke, JMethod>> it =
+                 callGraph.edgesInTo(methods[i]).iterator(); it.hasNext(); ) {
+                inEdges[k++] = edgeIds.get(it.next());
+            }
+        }
+        inEdgeStart[nMethods] = edges.length;
+        // views
+        calleeViews = new Set[nCallSites];
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            calleeViews[cs] = ArraySet.of(callees, calleeStart[cs], calleeStart[cs + 1],
+                    indexOf(callees, calleeStart[cs], calleeStart[cs + 1],
+                            this::getMethodId));
+        }
+        callSitesInViews = new Set[nMethods];
+        succViews = new Set[nMethods];
+        predViews = new Set[nMethods];
+        callerViews = new Set[nMethods];
+        outEdgeViews = new Set[nMethods];
+        inEdgeViews = new Set[nMethods];
+        for (int i = 0; i < nMethods; ++i) {
+            int method = i;
+            int csFrom = callSiteStart[i];
+            int csTo = callSiteStart[i + 1];
+            callSitesInViews[i] = ArraySet.of(callSites, csFrom, csTo, o -> {
+                int id = getCallSiteId(o);
+                return csFrom <= id && id < csTo;
+            });
+            int from = calleeStart[csFrom];
+            int to = calleeStart[csTo];
+            JMethod[] succs = distinct(callees, from, to);
+            succViews[i] = ArraySet.of(succs, 0, succs.length,
+                    indexOf(succs, 0, succs.length, this::getMethodId));
+            outEdgeViews[i] = ArraySet.of(methodEdges, from, to, o -> {
+                if (o instanceof MethodEdge<?, ?> edge &&
+                        getMethodId(edge.caller()) == method) {
+                    int cs = getCallSiteId(edge.callSite());
+                    return csFrom <= cs && cs < csTo &&
+                            calleeViews[cs].contains(edge.callee());
+                }
+                return false;
+            });
+            int n = inEdgeStart[i + 1] - inEdgeStart[i];
+            Invoke[] callers = new Invoke[n];
+            JMethod[] preds = new JMethod[n];
+            MethodEdge<Invoke, JMethod>[] in = new MethodEdge[n];
+            for (int k = 0; k < n; ++k) {
+                in[k] = methodEdges[inEdges[inEdgeStart[i] + k]];
+                callers[k] = in[k].callSite();
+                preds[k] = in[k].caller();
+            }
+            // each call site calls a method at most once,
+            // thus the callers are distinct
+            Set<Invoke> callerView = ArraySet.of(callers, 0, n,
+                    indexOf(callers, 0, n, this::getCallSiteId));
+            callerViews[i] = callerView;
+            JMethod[] distinctPreds = distinct(preds, 0, n);
+            predViews[i] = ArraySet.of(distinctPreds, 0, distinctPreds.length,
+                    indexOf(distinctPreds, 0, distinctPreds.length, this::getMethodId));
+            inEdgeViews[i] = ArraySet.of(in, 0, n, o -> {
+                if (o instanceof MethodEdge<?, ?> edge &&
+                        getMethodId(edge.callee()) == method &&
+                        callerView.contains(edge.callSite())) {
+                    int cs = getCallSiteId(edge.callSite());
+                    return getMethodId(edge.caller()) == callSiteContainers[cs];
+                }
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Converts given finished call graph to a frozen call graph.
+     */
+    public static FrozenCallGraph freeze(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph instanceof FrozenCallGraph frozen ?
+                frozen : new FrozenCallGraph(callGraph);
+    }
+
+    /**
+     * @return the distinct elements in given range of the array,
+     * in the order of their first occurrences.
+     */
+    private static <E> E[] distinct(E[] elements, int from, int to) {
+        Set<E> set = new LinkedHashSet<>(Arrays.asList(elements).subList(from, to));
+        return set.toArray(Arrays.copyOf(elements, 0));
+    }
+
+    /**
+     * @return the membership test of the elements in given range of
+     * the array, which searches the sorted ids of the elements
+     * (given by {@code idOf}, which returns -1 for other objects).
+     */
+    private static <E> Predicate<Object> indexOf(
+            E[] elements, int from, int to, ToIntFunction<Object> idOf) {
+        int[] ids = new int[to - from];
+        for (int i = from; i < to; ++i) {
+            ids[i - from] = idOf.applyAsInt(elements[i]);
+        }
+        Arrays.sort(ids);
+        return o -> {
+            int id = idOf.applyAsInt(o);
+            return id >= 0 && Arrays.binarySearch(ids, id) >= 0;
+        };
+    }
+
+    /**
+     * @return the id of given method, or -1 if it is not reachable.
+     */
+    public int getMethodId(JMethod method) {
+        return getMethodId((Object) method);
+    }
+
+    private int getMethodId(Object o) {
+        Integer id = methodIds.get(o);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @return the method of given id.
+     */
+    public JMethod getMethod(int id) {
+        return methods[id];
+    }
+
+    /**
+     * @return the id of given call site, or -1 if it is not
+     * in a reachable method.
+     */
+    public int getCallSiteId(Invoke callSite) {
+        return getCallSiteId((Object) callSite);
+    }
+
+    private int getCallSiteId(Object o) {
+        Integer id = callSiteIds.get(o);
+        return id != null ? id : -1;
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        Integer id = methodIds.get(callee);
+        return id != null ? callerViews[id] : Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id != null ? calleeViews[id] : Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        Integer id = methodIds.get(method);
+        return id != null ? callSitesInViews[id] : Set.of();
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id != null ?
+                Arrays.stream(edges, calleeStart[id], calleeStart[id + 1]) :
+                Stream.of();
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        Integer id = methodIds.get(method);
+        return id != null ?
+                Arrays.stream(inEdges, inEdgeStart[id], inEdgeStart[id + 1])
+                        .mapToObj(e -> edges[e]) :
+                Stream.of();
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return Arrays.stream(edges);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edges.length;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return Arrays.stream(entryMethods);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return Arrays.stream(methods);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return methodIds.containsKey(method);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        Integer id = methodIds.get(method);
+        return id != null ? inEdgeViews[id] : Set.of();
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        Integer id = methodIds.get(method);
+        return id != null ? outEdgeViews[id] : Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        Integer id = methodIds.get(node);
+        return id != null ? predViews[id] : Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        Integer id = methodIds.get(node);
+        return id != null ? succViews[id] : Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    /**
+     * Unmodifiable set view of a range of an array of distinct elements,
+     * whose membership is tested by a given predicate.
+     */
+    private static class ArraySet<E> extends AbstractSet<E> {
+
+        private final Object[] elements;
+
+        private final int from;
+
+        private final int to;
+
+        private final Predicate<Object> membership;
+
+        private ArraySet(Object[] elements, int from, int to,
+                         Predicate<Object> membership) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.membership = membership;
+        }
+
+        private static <E> Set<E> of(E[] elements, int from, int to,
+                                     Predicate<Object> membership) {
+            return from == to ? Set.of() :
+                    new ArraySet<>(elements, from, to, membership);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return membership.test(o);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public E next() {
+                    if (next >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    return (E) elements[next++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
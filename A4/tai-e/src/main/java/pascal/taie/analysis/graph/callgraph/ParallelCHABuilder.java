@@ -0,0 +1,135 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel implementation of the CHA algorithm.
+ * <p>
+ * The call graph is built level by level: the methods first reached at
+ * the same level (the frontier) are processed in parallel, i.e., their
+ * call sites are resolved by {@link CHABuilder#resolve(Invoke)}, and the
+ * callees which are reached for the first time form the next frontier.
+ * The result is the same as {@link CHABuilder}, see
+ * {@link ConcurrentCallGraph#freeze()}.
+ * <p>
+ * {@link JMethod#getIR()} builds the IR lazily and is not thread-safe,
+ * thus the IRs of each frontier are built by the calling thread before
+ * the frontier is processed, and the worker threads only read them.
+ */
+class ParallelCHABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private final CHABuilder cha = new CHABuilder();
+
+    /**
+     * Number of threads, 0 means running on the common fork-join pool.
+     */
+    private final int threads;
+
+    ParallelCHABuilder(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        JMethod entry = World.get().getMainMethod();
+        ConcurrentCallGraph callGraph = new ConcurrentCallGraph(entry);
+        callGraph.addReachableMethod(entry);
+        ForkJoinPool pool = threads == 0 ?
+                ForkJoinPool.commonPool() : new ForkJoinPool(threads);
+        try {
+            List<JMethod> frontier = List.of(entry);
+            while (!frontier.isEmpty()) {
+                List<JMethod> current = frontier;
+                buildIRs(current);
+                // a parallel stream started inside a fork-join pool
+                // runs its tasks on that pool
+                frontier = pool.submit(() -> current.parallelStream()
+                        .flatMap(m -> processNewMethod(callGraph, m).stream())
+                        .toList()).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Interrupted while building call graph", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new AnalysisException(e.getCause());
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+        return callGraph.freeze();
+    }
+
+    /**
+     * Builds the IRs of given methods, so that they are built once and
+     * safely published to the worker threads (submitting a task to
+     * a pool happens-before the task runs).
+     */
+    private static void buildIRs(List<JMethod> methods) {
+        for (JMethod method : methods) {
+            if (!method.isAbstract()) {
+                method.getIR();
+            }
+        }
+    }
+
+    /**
+     * Resolves the call sites in a new reachable method.
+     *
+     * @return the callees which become reachable for the first time.
+     */
+    private List<JMethod> processNewMethod(ConcurrentCallGraph callGraph,
+                                           JMethod method) {
+        if (method.isAbstract()) {
+            return List.of();
+        }
+        List<JMethod> newMethods = new ArrayList<>();
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof Invoke callSite) {
+                Set<JMethod> callees = cha.resolve(callSite);
+                callGraph.setCalleesOf(callSite, callees);
+                for (JMethod callee : callees) {
+                    if (callGraph.addReachableMethod(callee)) {
+                        newMethods.add(callee);
+                    }
+                }
+            }
+        }
+        return newMethods;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of Rapid Type Analysis (RTA).
+ * <p>
+ * Like CHA, but a virtual or interface call is only dispatched on the
+ * classes which are instantiated, i.e., created by the {@link New}
+ * statements in reachable methods. When a class becomes instantiated,
+ * the call sites already seen whose declaring classes are its supertypes
+ * are dispatched on it. Classes instantiated by the JVM or by reflection
+ * are not considered.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    private final Set<JClass> instantiatedClasses = Sets.newSet();
+
+    /**
+     * Virtual and interface call sites grouped by the declaring classes
+     * and subsignatures of the methods they call.
+     */
+    private final Map<JClass, Map<Subsignature, CallSiteGroup>> callSiteGroups =
+            Maps.newMap();
+
+    /**
+     * Call sites of the same declaring class and subsignature,
+     * which share the call targets.
+     */
+    private static class CallSiteGroup {
+
+        private final List<Invoke> callSites = new ArrayList<>();
+
+        private final Set<JMethod> targets = Sets.newHybridSet();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        return buildCallGraph(World.get().getMainMethod());
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method) && !method.isAbstract()) {
+                processNewMethod(method);
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * Processes the instantiations and call sites in a new reachable method.
+     */
+    private void processNewMethod(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt &&
+                    newStmt.getRValue() instanceof NewInstance newInstance) {
+                JClass jclass = newInstance.getType().getJClass();
+                if (jclass != null && instantiatedClasses.add(jclass)) {
+                    processNewClass(jclass);
+                }
+            }
+        }
+        for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+            CallKind kind = CallGraphs.getCallKind(callSite);
+            MethodRef methodRef = callSite.getMethodRef();
+            JClass jclass = methodRef.getDeclaringClass();
+            Subsignature subsignature = methodRef.getSubsignature();
+            switch (kind) {
+                case STATIC -> addEdge(callSite,
+                        jclass.getDeclaredMethod(subsignature));
+                case SPECIAL -> addEdge(callSite,
+                        hierarchy.dispatch(jclass, subsignature));
+                case VIRTUAL, INTERFACE -> {
+                    CallSiteGroup group = getCallSiteGroup(jclass, subsignature);
+                    group.callSites.add(callSite);
+                    group.targets.forEach(target -> addEdge(callSite, target));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the group of given declaring class and subsignature. A new
+     * group is dispatched on all classes instantiated so far.
+     */
+    private CallSiteGroup getCallSiteGroup(JClass jclass, Subsignature subsignature) {
+        Map<Subsignature, CallSiteGroup> groups = callSiteGroups
+                .computeIfAbsent(jclass, c -> Maps.newHybridMap());
+        CallSiteGroup group = groups.get(subsignature);
+        if (group == null) {
+            group = new CallSiteGroup();
+            for (JClass instantiated : instantiatedClasses) {
+                if (hierarchy.isSubclass(jclass, instantiated)) {
+                    JMethod target = hierarchy.dispatch(instantiated, subsignature);
+                    if (target != null) {
+                        group.targets.add(target);
+                    }
+                }
+            }
+            groups.put(subsignature, group);
+        }
+        return group;
+    }
+
+    /**
+     * Dispatches the call sites of the groups declared in the supertypes
+     * of a newly instantiated class on the class.
+     */
+    private void processNewClass(JClass jclass) {
+        for (JClass supertype : getSupertypesOf(jclass)) {
+            Map<Subsignature, CallSiteGroup> groups = callSiteGroups.get(supertype);
+            if (groups != null) {
+                groups.forEach((subsignature, group) -> {
+                    JMethod target = hierarchy.dispatch(jclass, subsignature);
+                    if (target != null && group.targets.add(target)) {
+                        group.callSites.forEach(callSite -> addEdge(callSite, target));
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @return given class, its superclasses, and all interfaces they
+     * implement directly or indirectly.
+     */
+    private static Set<JClass> getSupertypesOf(JClass jclass) {
+        Set<JClass> supertypes = Sets.newHybridSet();
+        Deque<JClass> stack = new ArrayDeque<>();
+        stack.push(jclass);
+        while (!stack.isEmpty()) {
+            JClass c = stack.pop();
+            if (supertypes.add(c)) {
+                if (c.getSuperClass() != null) {
+                    stack.push(c.getSuperClass());
+                }
+                c.getInterfaces().forEach(stack::push);
+            }
+        }
+        return supertypes;
+    }
+
+    private void addEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
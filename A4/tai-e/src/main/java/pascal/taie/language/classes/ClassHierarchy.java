@@ -75,6 +75,34 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return all subtypes of given class or interface, including itself,
+     * i.e., the closure of its direct subclasses, subinterfaces and
+     * implementors. The subclasses of a class are obtained in time linear
+     * to their number by the numbering of this hierarchy; the subtypes
+     * of an interface are computed once and cached.
+     */
+    Collection<JClass> getAllSubtypesOf(JClass jclass);
+
+    /**
+     * Checks subtyping in constant time by the numbering of this hierarchy,
+     * which is built on first use after classes are added.
+     *
+     * @return true if {@code subclass} is {@code superclass}, or a direct
+     * or indirect subclass, subinterface or implementor of it.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass);
+
+    /**
+     * Looks up the non-abstract method of given subsignature declared in
+     * given class or its superclasses. The result of each (class,
+     * subsignature) pair is computed once and cached.
+     *
+     * @return the dispatched method, or null if no such method is found.
+     */
+    @Nullable
+    JMethod dispatch(JClass jclass, Subsignature subsignature);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -28,12 +28,17 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
 import static pascal.taie.util.collection.Maps.newMap;
 import static pascal.taie.util.collection.Maps.newSmallMap;
 import static pascal.taie.util.collection.Sets.newHybridSet;
@@ -65,6 +70,25 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Numbering of this hierarchy for subtype checks, which is built
+     * on demand and discarded when a class is added.
+     */
+    private volatile HierarchyNumbering numbering;
+
+    /**
+     * Cache of {@link #getAllSubtypesOf(JClass)} for interfaces.
+     */
+    private final Map<JClass, Collection<JClass>> allSubtypes = newConcurrentMap();
+
+    /**
+     * Cache of {@link #dispatch(JClass, Subsignature)}. Failed lookups are
+     * cached as empty optionals, as they are common for abstract classes
+     * and interfaces, e.g., during CHA.
+     */
+    private final Map<JClass, Map<Subsignature, Optional<JMethod>>> dispatchTable =
+            newConcurrentMap();
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -97,6 +121,10 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public void addClass(JClass jclass) {
+        // a new class may change the subtypes and dispatch results
+        numbering = null;
+        allSubtypes.clear();
+        dispatchTable.clear();
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -160,6 +188,105 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    private HierarchyNumbering getNumbering() {
+        HierarchyNumbering result = numbering;
+        if (result == null) {
+            synchronized (this) {
+                result = numbering;
+                if (result == null) {
+                    result = new HierarchyNumbering(this, allClasses().toList());
+                    numbering = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isSubclass(JClass superclass, JClass subclass) {
+        if (superclass == subclass) {
+            return true;
+        }
+        Boolean result = getNumbering().isSubclass(superclass, subclass);
+        if (result != null) {
+            return result;
+        }
+        // some class is not loaded by the class loaders, e.g., a phantom class
+        if (superclass.isInterface()) {
+            return getAllSubtypesOf(superclass).contains(subclass);
+        } else if (subclass.isInterface()) {
+            return superclass.getName().equals(ClassNames.OBJECT);
+        } else {
+            return isSuperclassOf(superclass, subclass);
+        }
+    }
+
+    private static boolean isSuperclassOf(JClass superclass, JClass subclass) {
+        for (JClass c = subclass; c != null; c = c.getSuperClass()) {
+            if (c == superclass) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Collection<JClass> getAllSubtypesOf(JClass jclass) {
+        if (!jclass.isInterface()) {
+            Collection<JClass> subclasses = getNumbering().getAllSubclassesOf(jclass);
+            if (subclasses != null) {
+                return subclasses;
+            }
+        }
+        return allSubtypes.computeIfAbsent(jclass, this::computeAllSubtypes);
+    }
+
+    private Collection<JClass> computeAllSubtypes(JClass jclass) {
+        Set<JClass> subtypes = newHybridSet();
+        Deque<JClass> workList = new ArrayDeque<>();
+        subtypes.add(jclass);
+        workList.add(jclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (c.isInterface()) {
+                addSubtypes(getDirectSubinterfacesOf(c), subtypes, workList);
+                addSubtypes(getDirectImplementorsOf(c), subtypes, workList);
+            } else {
+                addSubtypes(getDirectSubclassesOf(c), subtypes, workList);
+            }
+        }
+        return Collections.unmodifiableSet(subtypes);
+    }
+
+    private static void addSubtypes(Collection<JClass> directSubtypes,
+                                    Set<JClass> subtypes, Deque<JClass> workList) {
+        for (JClass subtype : directSubtypes) {
+            if (subtypes.add(subtype)) {
+                workList.add(subtype);
+            }
+        }
+    }
+
+    @Override
+    public @Nullable
+    JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        return dispatchTable.computeIfAbsent(jclass, c -> newConcurrentMap())
+                .computeIfAbsent(subsignature, s -> Optional.ofNullable(
+                        lookupMethodFromSuperclasses(jclass, s)))
+                .orElse(null);
+    }
+
+    private static JMethod lookupMethodFromSuperclasses(
+            JClass jclass, Subsignature subsignature) {
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            JMethod method = c.getDeclaredMethod(subsignature);
+            if (method != null && !method.isAbstract()) {
+                return method;
+            }
+        }
+        return null;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -0,0 +1,203 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbering of a class hierarchy for constant-time subtype checks.
+ * <ul>
+ *     <li>The classes (excluding interfaces) form trees by single
+ *     inheritance, which are numbered in preorder. Each class is given
+ *     the interval of the preorder numbers of its subtree, thus a class
+ *     is a subclass of another iff its number is in the interval of the
+ *     other, and the subclasses of a class are a contiguous range of
+ *     the classes in preorder.</li>
+ *     <li>Each interface is given an index, and each class or interface
+ *     is given the bitset (by the indexes) of all interfaces it implements
+ *     (or extends), directly or indirectly. Classes which implement no
+ *     interfaces other than those of their superclasses share the bitsets
+ *     of their superclasses.</li>
+ * </ul>
+ * The numbering is immutable, thus it must be rebuilt when classes are added.
+ */
+class HierarchyNumbering {
+
+    private final ClassHierarchy hierarchy;
+
+    private final Map<JClass, Node> nodes = Maps.newMap();
+
+    /**
+     * The classes in preorder of the class trees.
+     */
+    private final List<JClass> preorder = new ArrayList<>();
+
+    private int interfaceCounter = 0;
+
+    private static class Node {
+
+        /**
+         * Preorder number of a class, or index of an interface.
+         */
+        private int number;
+
+        /**
+         * The largest preorder number in the subtree of a class.
+         */
+        private int last;
+
+        private BitSet interfaces;
+    }
+
+    HierarchyNumbering(ClassHierarchy hierarchy, Collection<JClass> classes) {
+        this.hierarchy = hierarchy;
+        for (JClass jclass : classes) {
+            if (jclass.isInterface()) {
+                getInterfaceNode(jclass);
+            } else if (!nodes.containsKey(jclass)) {
+                JClass root = jclass;
+                while (root.getSuperClass() != null) {
+                    root = root.getSuperClass();
+                }
+                numberTree(root);
+            }
+        }
+    }
+
+    /**
+     * Numbers the classes in the tree of given root by an iterative
+     * depth-first traversal.
+     */
+    private void numberTree(JClass root) {
+        Deque<JClass> stack = new ArrayDeque<>();
+        Deque<Iterator<JClass>> iterators = new ArrayDeque<>();
+        enter(root, null);
+        stack.push(root);
+        iterators.push(hierarchy.getDirectSubclassesOf(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<JClass> it = iterators.peek();
+            if (it.hasNext()) {
+                JClass subclass = it.next();
+                enter(subclass, nodes.get(stack.peek()));
+                stack.push(subclass);
+                iterators.push(hierarchy.getDirectSubclassesOf(subclass).iterator());
+            } else {
+                nodes.get(stack.pop()).last = preorder.size() - 1;
+                iterators.pop();
+            }
+        }
+    }
+
+    private void enter(JClass jclass, Node parent) {
+        Node node = new Node();
+        node.number = preorder.size();
+        preorder.add(jclass);
+        BitSet interfaces = parent != null ? parent.interfaces : new BitSet();
+        for (JClass iface : jclass.getInterfaces()) {
+            interfaces = union(interfaces, getInterfaceNode(iface).interfaces,
+                    parent != null ? parent.interfaces : null);
+        }
+        node.interfaces = interfaces;
+        nodes.put(jclass, node);
+    }
+
+    /**
+     * @return the node of given interface, which is created (together with
+     * the nodes of its superinterfaces) if absent.
+     */
+    private Node getInterfaceNode(JClass iface) {
+        Node node = nodes.get(iface);
+        if (node == null) {
+            node = new Node();
+            node.number = interfaceCounter++;
+            BitSet interfaces = new BitSet();
+            interfaces.set(node.number);
+            nodes.put(iface, node);
+            // interface hierarchies are shallow, so recursion is fine here
+            for (JClass superinterface : iface.getInterfaces()) {
+                interfaces = union(interfaces,
+                        getInterfaceNode(superinterface).interfaces, null);
+            }
+            node.interfaces = interfaces;
+        }
+        return node;
+    }
+
+    /**
+     * @return the union of given bitsets. If {@code bits} is
+     * {@code shared} (i.e., owned by another node), it is copied before
+     * being modified, and if {@code other} adds nothing, {@code bits}
+     * is returned as is.
+     */
+    private static BitSet union(BitSet bits, BitSet other, BitSet shared) {
+        BitSet missing = (BitSet) other.clone();
+        missing.andNot(bits);
+        if (missing.isEmpty()) {
+            return bits;
+        }
+        BitSet result = bits == shared ? (BitSet) bits.clone() : bits;
+        result.or(missing);
+        return result;
+    }
+
+    /**
+     * @return true if {@code subclass} is a subtype of {@code superclass},
+     * or null if any of them is not numbered.
+     */
+    Boolean isSubclass(JClass superclass, JClass subclass) {
+        Node sup = nodes.get(superclass);
+        Node sub = nodes.get(subclass);
+        if (sup == null || sub == null) {
+            return null;
+        }
+        if (superclass.isInterface()) {
+            return sub.interfaces.get(sup.number);
+        } else if (subclass.isInterface()) {
+            // an interface is a subtype of only java.lang.Object among classes
+            return superclass.getSuperClass() == null &&
+                    superclass.getName().equals(ClassNames.OBJECT);
+        } else {
+            return sup.number <= sub.number && sub.number <= sup.last;
+        }
+    }
+
+    /**
+     * @return all subclasses of given class (not an interface) including
+     * itself, or null if it is not numbered.
+     */
+    List<JClass> getAllSubclassesOf(JClass jclass) {
+        Node node = nodes.get(jclass);
+        return node != null ? Collections.unmodifiableList(
+                preorder.subList(node.number, node.last + 1)) : null;
+    }
+}
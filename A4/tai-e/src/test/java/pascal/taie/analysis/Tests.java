@@ -61,6 +61,22 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        testWithExpected(main, classPath, id, id, opts);
+    }
+
+    /**
+     * Starts an analysis for a specific test case, whose expected results
+     * are given by {@code expectedId} instead of the analysis ID, e.g.,
+     * for the call graphs built by different algorithms.
+     *
+     * @param main       the main class to be analyzed
+     * @param classPath  where the main class is located
+     * @param id         ID of the analysis to be executed
+     * @param expectedId ID in the name of the expected file
+     * @param opts       options for the analysis
+     */
+    public static void testWithExpected(String main, String classPath, String id,
+                                        String expectedId, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -82,7 +98,7 @@ public final class Tests {
         }
         // set up result processor
         String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        String file = getExpectedFile(classPath, main, id);
+        String file = getExpectedFile(classPath, main, expectedId);
         String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
                 ResultProcessor.ID, id, action, file);
         Collections.addAll(args, "-a", processArg);
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class FrozenCallGraphTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static CallGraph<Invoke, JMethod> buildCHA(String main) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", "cg=algorithm:cha"});
+        return new CHABuilder().build();
+    }
+
+    private static <T> Set<T> toSet(Stream<T> stream) {
+        return new HashSet<>(stream.toList());
+    }
+
+    /**
+     * Checks that the frozen graph of the CHA call graph of given main
+     * class has the same methods, call sites and edges, and that
+     * its views answer membership queries as the original graph.
+     */
+    private static void test(String main) {
+        CallGraph<Invoke, JMethod> callGraph = buildCHA(main);
+        FrozenCallGraph frozen = FrozenCallGraph.freeze(callGraph);
+        Assert.assertEquals(callGraph.reachableMethods().toList(),
+                frozen.reachableMethods().toList());
+        Assert.assertEquals(callGraph.entryMethods().toList(),
+                frozen.entryMethods().toList());
+        Assert.assertEquals(toSet(callGraph.edges()), toSet(frozen.edges()));
+        Assert.assertEquals(callGraph.getNumberOfEdges(),
+                frozen.getNumberOfEdges());
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        List<Invoke> callSites = methods.stream()
+                .flatMap(callGraph::callSitesIn)
+                .toList();
+        for (JMethod method : methods) {
+            Assert.assertTrue(frozen.contains(method));
+            Assert.assertEquals(callGraph.getCallSitesIn(method),
+                    frozen.getCallSitesIn(method));
+            Assert.assertEquals(callGraph.getCallersOf(method),
+                    frozen.getCallersOf(method));
+            Assert.assertEquals(callGraph.getSuccsOf(method),
+                    frozen.getSuccsOf(method));
+            Assert.assertEquals(callGraph.getPredsOf(method),
+                    frozen.getPredsOf(method));
+            Assert.assertEquals(callGraph.getInEdgesOf(method),
+                    frozen.getInEdgesOf(method));
+            Assert.assertEquals(callGraph.getOutEdgesOf(method),
+                    frozen.getOutEdgesOf(method));
+            Assert.assertEquals(callGraph.edgesInTo(method).toList(),
+                    frozen.edgesInTo(method).toList());
+            for (JMethod other : methods) {
+                Assert.assertEquals(callGraph.getSuccsOf(method).contains(other),
+                        frozen.getSuccsOf(method).contains(other));
+                Assert.assertEquals(callGraph.getPredsOf(method).contains(other),
+                        frozen.getPredsOf(method).contains(other));
+            }
+            for (Invoke callSite : callSites) {
+                Assert.assertEquals(
+                        callGraph.getCallSitesIn(method).contains(callSite),
+                        frozen.getCallSitesIn(method).contains(callSite));
+                Assert.assertEquals(
+                        callGraph.getCallersOf(method).contains(callSite),
+                        frozen.getCallersOf(method).contains(callSite));
+            }
+            for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+                Assert.assertEquals(callGraph.getCalleesOf(callSite),
+                        frozen.getCalleesOf(callSite));
+                Assert.assertEquals(callGraph.edgesOutOf(callSite).toList(),
+                        frozen.edgesOutOf(callSite).toList());
+                Assert.assertEquals(callGraph.getContainerOf(callSite),
+                        frozen.getContainerOf(callSite));
+            }
+        }
+        callGraph.edges().forEach(edge -> {
+            JMethod caller = callGraph.getContainerOf(edge.getCallSite());
+            MethodEdge<Invoke, JMethod> methodEdge = new MethodEdge<>(
+                    caller, edge.getCallee(), edge.getCallSite());
+            Assert.assertTrue(frozen.getOutEdgesOf(caller).contains(methodEdge));
+            Assert.assertTrue(frozen.getInEdgesOf(edge.getCallee())
+                    .contains(methodEdge));
+            Assert.assertTrue(frozen.getCalleesOf(edge.getCallSite())
+                    .contains(edge.getCallee()));
+        });
+    }
+
+    @Test
+    public void testStaticCall() {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        test("AbstractMethod");
+    }
+
+    @Test
+    public void testRedispatch() {
+        test("Redispatch");
+    }
+}
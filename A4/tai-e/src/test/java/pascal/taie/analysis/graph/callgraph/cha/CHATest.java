@@ -29,6 +29,9 @@ public class CHATest {
     
     protected static void test(String main) {
         Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha");
+        // the parallel builders must build the same call graphs
+        Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha;threads:4");
+        Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha;threads:0");
     }
 
     @Test
@@ -50,4 +53,9 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testRedispatch() {
+        test("Redispatch");
+    }
 }
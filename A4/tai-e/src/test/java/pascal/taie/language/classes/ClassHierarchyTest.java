@@ -0,0 +1,293 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.VoidType;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ClassHierarchyTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static final Subsignature FOO = Subsignature.get("void foo()");
+
+    private static final Subsignature GET = Subsignature.get("int get()");
+
+    private static ClassHierarchy buildHierarchy(String main) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", "cg=algorithm:cha"});
+        return World.get().getClassHierarchy();
+    }
+
+    /**
+     * Creates a class which declares the void methods of given names
+     * without parameters, and adds it to given hierarchy.
+     */
+    private static JClass addClass(ClassHierarchy hierarchy, String name,
+                                   JClass superClass, List<JClass> interfaces,
+                                   String... methodNames) {
+        JClassLoader loader = hierarchy.getDefaultClassLoader();
+        JClass jclass = new JClass(loader, name);
+        List<JMethod> declaredMethods = Arrays.stream(methodNames)
+                .map(methodName -> new JMethod(jclass, methodName,
+                        Set.of(Modifier.PUBLIC), List.of(), VoidType.VOID,
+                        List.of(), AnnotationHolder.emptyHolder(), null, null))
+                .toList();
+        jclass.build(new JClassBuilder() {
+            @Override
+            public void build(JClass jclass) {
+            }
+
+            @Override
+            public Set<Modifier> getModifiers() {
+                return Set.of(Modifier.PUBLIC);
+            }
+
+            @Override
+            public String getSimpleName() {
+                return name;
+            }
+
+            @Override
+            public ClassType getClassType() {
+                return new ClassType(loader, name);
+            }
+
+            @Override
+            public JClass getSuperClass() {
+                return superClass;
+            }
+
+            @Override
+            public Collection<JClass> getInterfaces() {
+                return interfaces;
+            }
+
+            @Override
+            public JClass getOuterClass() {
+                return null;
+            }
+
+            @Override
+            public Collection<JField> getDeclaredFields() {
+                return List.of();
+            }
+
+            @Override
+            public Collection<JMethod> getDeclaredMethods() {
+                return declaredMethods;
+            }
+
+            @Override
+            public AnnotationHolder getAnnotationHolder() {
+                return AnnotationHolder.emptyHolder();
+            }
+
+            @Override
+            public boolean isApplication() {
+                return true;
+            }
+        });
+        hierarchy.addClass(jclass);
+        return jclass;
+    }
+
+    @Test
+    public void testDispatch() {
+        ClassHierarchy hierarchy = buildHierarchy("VirtualCall");
+        JClass a = hierarchy.getClass("A");
+        JClass b = hierarchy.getClass("B");
+        JClass c = hierarchy.getClass("C");
+        JMethod aFoo = a.getDeclaredMethod(FOO);
+        Assert.assertNotNull(aFoo);
+        // cached results are the same as the first ones
+        for (int i = 0; i < 2; ++i) {
+            Assert.assertSame(aFoo, hierarchy.dispatch(b, FOO));
+            Assert.assertSame(c.getDeclaredMethod(FOO), hierarchy.dispatch(c, FOO));
+            // failed lookups are cached too
+            Assert.assertNull(hierarchy.dispatch(b, GET));
+        }
+        Collection<JClass> subtypes = hierarchy.getAllSubtypesOf(b);
+        Assert.assertEquals(Set.of(b, c, hierarchy.getClass("D")), Set.copyOf(subtypes));
+        Assert.assertEquals(Set.copyOf(subtypes), Set.copyOf(hierarchy.getAllSubtypesOf(b)));
+    }
+
+    @Test
+    public void testInvalidation() {
+        ClassHierarchy hierarchy = buildHierarchy("VirtualCall");
+        JClass a = hierarchy.getClass("A");
+        JClass b = hierarchy.getClass("B");
+        JMethod aFoo = a.getDeclaredMethod(FOO);
+        // query before adding the class
+        Assert.assertSame(aFoo, hierarchy.dispatch(b, FOO));
+        Assert.assertFalse(hierarchy.getAllSubtypesOf(b).stream()
+                .anyMatch(sub -> sub.getName().equals("F")));
+        JClass f = addClass(hierarchy, "F", b, List.of(), "foo");
+        JClass g = addClass(hierarchy, "G", f, List.of());
+        Assert.assertTrue(hierarchy.getAllSubtypesOf(b).contains(f));
+        Assert.assertTrue(hierarchy.getAllSubtypesOf(a).contains(g));
+        Assert.assertSame(aFoo, hierarchy.dispatch(b, FOO));
+        Assert.assertSame(f.getDeclaredMethod(FOO), hierarchy.dispatch(f, FOO));
+        Assert.assertSame(f.getDeclaredMethod(FOO), hierarchy.dispatch(g, FOO));
+    }
+
+    @Test
+    public void testInterfaceInvalidation() {
+        ClassHierarchy hierarchy = buildHierarchy("Interface");
+        JClass number = hierarchy.getClass("Number");
+        Collection<JClass> before = hierarchy.getAllSubtypesOf(number);
+        Assert.assertEquals(4, before.size());
+        // the closure of an interface is computed once
+        Assert.assertSame(before, hierarchy.getAllSubtypesOf(number));
+        JClass three = addClass(hierarchy, "Three",
+                hierarchy.getClass(ClassNames.OBJECT), List.of(number), "foo");
+        Collection<JClass> after = hierarchy.getAllSubtypesOf(number);
+        Assert.assertTrue(after.containsAll(before));
+        Assert.assertTrue(after.contains(three));
+        Assert.assertEquals(5, after.size());
+        Assert.assertSame(three.getDeclaredMethod(FOO), hierarchy.dispatch(three, FOO));
+        Assert.assertNull(hierarchy.dispatch(three, GET));
+    }
+
+    /**
+     * @return true if {@code subclass} is a subtype of {@code superclass},
+     * by walking up the superclasses and superinterfaces of {@code subclass},
+     * i.e., without the numbering of the hierarchy.
+     */
+    private static boolean isSubclassByTraversal(JClass superclass, JClass subclass) {
+        if (superclass == subclass) {
+            return true;
+        }
+        if (subclass.isInterface() && !superclass.isInterface()) {
+            return superclass.getName().equals(ClassNames.OBJECT);
+        }
+        for (JClass c = subclass; c != null; c = c.getSuperClass()) {
+            if (c == superclass) {
+                return true;
+            }
+            for (JClass iface : c.getInterfaces()) {
+                if (isSubclassByTraversal(superclass, iface)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the application classes, their superclasses
+     * and superinterfaces, and given classes.
+     */
+    private static Set<JClass> getClasses(ClassHierarchy hierarchy, JClass... added) {
+        Set<JClass> classes = new HashSet<>();
+        Deque<JClass> workList = new ArrayDeque<>(List.of(added));
+        hierarchy.applicationClasses().forEach(workList::add);
+        while (!workList.isEmpty()) {
+            JClass jclass = workList.poll();
+            if (classes.add(jclass)) {
+                if (jclass.getSuperClass() != null) {
+                    workList.add(jclass.getSuperClass());
+                }
+                workList.addAll(jclass.getInterfaces());
+            }
+        }
+        return classes;
+    }
+
+    private static boolean isLoaded(JClass jclass) {
+        return jclass.getType().getJClass() == jclass;
+    }
+
+    /**
+     * Checks the subtype relations of given classes and their array types
+     * against {@link #isSubclassByTraversal}.
+     */
+    private static void checkSubtypes(ClassHierarchy hierarchy, Set<JClass> classes) {
+        TypeSystem typeSystem = World.get().getTypeSystem();
+        for (JClass sup : classes) {
+            Collection<JClass> subtypes = hierarchy.getAllSubtypesOf(sup);
+            for (JClass sub : classes) {
+                boolean expected = isSubclassByTraversal(sup, sub);
+                Assert.assertEquals(sup + " :> " + sub,
+                        expected, hierarchy.isSubclass(sup, sub));
+                if (!sup.getName().equals(ClassNames.OBJECT)) {
+                    // all interfaces are subtypes of Object by isSubclass,
+                    // but they are not in its subtypes
+                    Assert.assertEquals(sup + " subtypes " + sub,
+                            expected, subtypes.contains(sub));
+                }
+                // the type system resolves the classes by the class loaders,
+                // which do not load the classes added by the tests
+                if (isLoaded(sup) && isLoaded(sub)) {
+                    Assert.assertEquals(sup + "[] :> " + sub + "[]", expected,
+                            typeSystem.isSubtype(typeSystem.getArrayType(sup.getType(), 1),
+                                    typeSystem.getArrayType(sub.getType(), 1)));
+                }
+            }
+            if (!sup.isInterface() && isLoaded(sup)) {
+                // among the classes, an array type is a subtype of only Object
+                Assert.assertEquals(sup.getName().equals(ClassNames.OBJECT),
+                        typeSystem.isSubtype(sup.getType(),
+                                typeSystem.getArrayType(sup.getType(), 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testSubtypes() {
+        for (String main : List.of("StaticCall", "VirtualCall",
+                "Interface", "AbstractMethod")) {
+            ClassHierarchy hierarchy = buildHierarchy(main);
+            checkSubtypes(hierarchy, getClasses(hierarchy));
+        }
+    }
+
+    @Test
+    public void testSubtypesOfAddedClasses() {
+        ClassHierarchy hierarchy = buildHierarchy("Interface");
+        // build the numbering before adding the classes
+        checkSubtypes(hierarchy, getClasses(hierarchy));
+        JClass number = hierarchy.getClass("Number");
+        JClass one = hierarchy.getClass("One");
+        JClass big = addClass(hierarchy, "Big", one, List.of(), "foo");
+        JClass bigger = addClass(hierarchy, "Bigger", big, List.of(number));
+        Assert.assertTrue(hierarchy.isSubclass(number, bigger));
+        Assert.assertTrue(hierarchy.isSubclass(one, bigger));
+        Assert.assertFalse(hierarchy.isSubclass(bigger, one));
+        checkSubtypes(hierarchy, getClasses(hierarchy, big, bigger));
+    }
+}
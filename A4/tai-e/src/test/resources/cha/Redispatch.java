@@ -0,0 +1,38 @@
+interface Shape {
+    void draw();
+}
+
+public class Redispatch {
+
+    public static void main(String[] args) {
+        Square square = new Square();
+        draw(square);
+        newCircle();
+    }
+
+    static void draw(Shape shape) {
+        shape.draw();
+    }
+
+    static void newCircle() {
+        new Circle(); // instantiated after draw(Shape) is reached
+    }
+}
+
+class Circle implements Shape {
+
+    public void draw() {
+    }
+}
+
+class Square implements Shape {
+
+    public void draw() {
+    }
+}
+
+class Triangle implements Shape {
+
+    public void draw() {
+    }
+}
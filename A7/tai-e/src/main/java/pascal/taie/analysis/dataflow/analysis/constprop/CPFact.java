@@ -22,12 +22,9 @@
 
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
-import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.PersistentMapFact;
 import pascal.taie.ir.exp.Var;
 
-import java.util.Collections;
-import java.util.Map;
-
 /**
  * Represents data facts of constant propagation, which maps variables
  * to their lattice values.
@@ -37,15 +34,18 @@ import java.util.Map;
  * it represents that the lattice value of the variable is UNDEF;
  * moreover, if we set the lattice value of a variable to UNDEF,
  * it effectively removes the variable from the CPFact.
+ * <p>
+ * The mappings are kept in a persistent trie (see {@link PersistentMapFact}),
+ * so copying a CPFact takes constant time, and the facts of statements
+ * that define no variable share the trie with their predecessors.
  */
-public class CPFact extends MapFact<Var, Value> {
+public class CPFact extends PersistentMapFact<Var, Value> {
 
     public CPFact() {
-        this(Collections.emptyMap());
     }
 
-    private CPFact(Map<Var, Value> map) {
-        super(map);
+    private CPFact(CPFact fact) {
+        super(fact);
     }
 
     /**
@@ -54,7 +54,8 @@ public class CPFact extends MapFact<Var, Value> {
      */
     @Override
     public Value get(Var key) {
-        return map.getOrDefault(key, Value.getUndef());
+        Value value = super.get(key);
+        return value != null ? value : Value.getUndef();
     }
 
     @Override
@@ -71,6 +72,6 @@ public class CPFact extends MapFact<Var, Value> {
 
     @Override
     public CPFact copy() {
-        return new CPFact(this.map);
+        return new CPFact(this);
     }
 }
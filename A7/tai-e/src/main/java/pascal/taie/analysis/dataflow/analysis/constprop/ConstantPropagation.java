@@ -78,9 +78,9 @@ public class ConstantPropagation extends
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me DONE
-        for (Var var : fact.keySet()) {
-            target.update(var, meetValue(target.get(var), fact.get(var)));
-        }
+        // variables absent in target are UNDEF, whose meet with
+        // any value is the value itself, i.e., they are just copied
+        target.merge(fact, this::meetValue);
     }
 
     /**
@@ -126,12 +126,11 @@ public class ConstantPropagation extends
             Exp lvalue = ((DefinitionStmt<?, ?>) stmt).getLValue();
             if (lvalue instanceof Var lhs) {
                 Exp rhs = ((DefinitionStmt<?, ?>) stmt).getRValue();
-                boolean changed = false;
-                for (Var inVar : in.keySet()) {
-                    if (!inVar.equals(lhs)) {
-                        changed |= out.update(inVar, in.get(inVar));
-                    }
-                }
+                // removing lhs from a copy of in only copies the path to lhs,
+                // the rest of the trie is shared by in and out
+                CPFact inWithoutLhs = in.copy();
+                inWithoutLhs.remove(lhs);
+                boolean changed = out.copyFrom(inWithoutLhs);
                 return canHoldInt(lhs) ?
                         out.update(lhs, evaluate(rhs, in)) || changed :
                         changed;
@@ -260,13 +260,11 @@ public class InterConstantPropagation extends
 
         // 这里额外处理我们上面提到的默认常量传播未处理的情况
         if (stmt instanceof LoadArray load) { // LoadArray
-            boolean changed = false;
             Var lhs = load.getLValue(); // 拿到赋值的左值
-            for (Var inVar : in.keySet()) { // 先把赋值之外的全部从in传递到out
-                if (!inVar.equals(lhs)) { // 这里不会修改lhs对应的变量的值,在下面修改
-                    changed |= out.update(inVar, in.get(inVar)); // 更新了就会返回true
-                }
-            }
+            // 先把赋值之外的全部从in传递到out,这里不会修改lhs对应的变量的值,在下面修改
+            CPFact inWithoutLhs = in.copy(); // in and out share the trie except the path to lhs
+            inWithoutLhs.remove(lhs);
+            boolean changed = out.copyFrom(inWithoutLhs); // 更新了就会返回true
             for (StoreArray store : arrayLoadToStores.get(load)) { // 拿到该Load的全部Store语句
                 // 这里就是和Field的区别,我们在Load之前进行一次全体的store的传递
                 // 注意这里是同一个Load,将所有相关的Store进行传递,和下面是不同的
@@ -287,14 +285,10 @@ public class InterConstantPropagation extends
             return changed; // 返回默认传递的结果
         } else if (stmt instanceof LoadField load) { // fieldLoad直接取出来即可,Store时进行了传播
             // 这里Store的传播是完备的,因此Load不需要再把改变pull下来,所有Store都会完全推送它们造成的改变
-            boolean changed = false;
             Var lhs = load.getLValue();
-            for (Var inVar : in.keySet()) {
-                if (!inVar.equals(lhs)) {
-                    changed |= out.update(inVar, in.get(inVar));
-                }
-            }
-            return changed;
+            CPFact inWithoutLhs = in.copy();
+            inWithoutLhs.remove(lhs);
+            return out.copyFrom(inWithoutLhs);
         }else if (stmt instanceof StoreField store) { // fieldStore需要传播值
             Var var = store.getRValue();
             Value value = in.get(var);
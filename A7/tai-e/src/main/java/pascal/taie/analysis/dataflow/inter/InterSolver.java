@@ -23,9 +23,12 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.SetQueue;
 
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -45,10 +48,25 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    /**
+     * Statistics of this solver, or null if the statistics are disabled.
+     */
+    private final SolverStats stats;
+
+    /**
+     * Metrics of each method, i.e., the work on the nodes of a method
+     * is recorded in the metrics of the method.
+     */
+    private final Map<Method, SolverStats.Metrics> metrics = Maps.newMap();
+
+    /**
+     * @param stats the statistics of the analysis, or null if disabled
+     */
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-                ICFG<Method, Node> icfg) {
+                ICFG<Method, Node> icfg, SolverStats stats) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.stats = stats;
     }
 
     DataflowResult<Node, Fact> solve() {
@@ -84,16 +102,47 @@ class InterSolver<Method, Node, Fact> {
         });
         while (!workList.isEmpty()) {
             Node node = workList.poll();
+            SolverStats.Metrics m = startMetrics(node);
             Fact in = result.getInFact(node); // 拿到节点的In
             icfg.getInEdgesOf(node).forEach(edge -> { // 查看节点的所有InEdge
                 Fact predout = result.getOutFact(edge.getSource()); // 拿到InEdge的源节点的Out
                 analysis.meetInto(analysis.transferEdge(edge, predout), in); // 进行边转换，然后合并到In里
+                if (m != null) {
+                    m.countMeet();
+                }
             });
             Fact out = result.getOutFact(node);
-            if (analysis.transferNode(node, in, out)) { // 进行节点转换，看是否有改变
+            boolean changed = analysis.transferNode(node, in, out);
+            if (changed) { // 进行节点转换，看是否有改变
                 workList.addAll(icfg.getSuccsOf(node)); // 加入所有后继
             }
+            if (m != null) {
+                m.countTransfer();
+                // records the sizes on every transfer, as a large fact
+                // may be produced once and never changed again
+                m.updateFactSize(in);
+                m.updateFactSize(out);
+                m.updateWorkListSize(workList.size());
+                m.stop();
+            }
+        }
+    }
+
+    /**
+     * Starts recording the visit of given node in the metrics
+     * of its containing method.
+     *
+     * @return the metrics, or null if the statistics are disabled.
+     */
+    private SolverStats.Metrics startMetrics(Node node) {
+        if (stats == null) {
+            return null;
         }
+        SolverStats.Metrics m = metrics.computeIfAbsent(
+                icfg.getContainingMethodOf(node), stats::newMetrics);
+        m.countNodeVisit();
+        m.start();
+        return m;
     }
 
     void propagate(Node node) {